@@ -0,0 +1,143 @@
+package edu.isi.oba;
+
+import java.util.*;
+
+import org.semanticweb.owlapi.model.*;
+
+/**
+ * Transitive (told) super classes of every class of a set of ontologies (e.g. an ontology and its imports), computed once.
+ * Each class gets an int id and its super classes are stored as a BitSet of ids.
+ *
+ * It follows the structural reasoner: the named conjuncts of SubClassOf and EquivalentClasses axioms
+ * are super classes, owl:Thing is a super class of every other class, and classes that end up
+ * being super classes of each other (e.g. owl:equivalentClass) are equivalent instead.
+ */
+class ClassHierarchy {
+    private final Map<OWLClass, Integer> ids = new HashMap<>();
+    private final List<OWLClass> classes = new ArrayList<>();
+    private final BitSet[] superClasses;
+    private final int owlThingId;
+
+    public ClassHierarchy(Collection<OWLOntology> ontologies, OWLClass owlThing) {
+        Set<OWLClass> signature = new TreeSet<>();
+        for (OWLOntology ontology : ontologies) {
+            signature.addAll(ontology.getClassesInSignature());
+        }
+        signature.add(owlThing);
+
+        for (OWLClass cls : signature) {
+            this.ids.put(cls, this.classes.size());
+            this.classes.add(cls);
+        }
+        this.owlThingId = this.ids.get(owlThing);
+
+        //Direct super classes
+        List<Set<Integer>> parents = new ArrayList<>();
+        for (int i = 0; i < this.classes.size(); i++) {
+            parents.add(new HashSet<>());
+        }
+
+        for (OWLOntology ontology : ontologies) {
+            for (OWLSubClassOfAxiom axiom : ontology.getAxioms(AxiomType.SUBCLASS_OF)) {
+                if (!axiom.getSubClass().isAnonymous()) {
+                    this.addParents(parents, axiom.getSubClass().asOWLClass(), axiom.getSuperClass());
+                }
+            }
+
+            for (OWLEquivalentClassesAxiom axiom : ontology.getAxioms(AxiomType.EQUIVALENT_CLASSES)) {
+                for (OWLClass cls : axiom.getNamedClasses()) {
+                    for (OWLClassExpression ce : axiom.getClassExpressionsMinus(cls)) {
+                        this.addParents(parents, cls, ce);
+                    }
+                }
+            }
+        }
+
+        //Transitive closure, walking the parents of each class with an explicit stack
+        this.superClasses = new BitSet[this.classes.size()];
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int i = 0; i < this.classes.size(); i++) {
+            BitSet closure = new BitSet(this.classes.size());
+            pending.addAll(parents.get(i));
+            while (!pending.isEmpty()) {
+                int parent = pending.pop();
+                if (!closure.get(parent)) {
+                    closure.set(parent);
+                    pending.addAll(parents.get(parent));
+                }
+            }
+
+            if (i != this.owlThingId) {
+                closure.set(this.owlThingId);
+            }
+            this.superClasses[i] = closure;
+        }
+
+        //Classes that are super classes of each other are equivalent, not super classes (as in the reasoner nodes)
+        BitSet[] equivalentClasses = new BitSet[this.classes.size()];
+        for (int i = 0; i < this.classes.size(); i++) {
+            BitSet equivalents = new BitSet(this.classes.size());
+            BitSet closure = this.superClasses[i];
+            for (int j = closure.nextSetBit(0); j >= 0; j = closure.nextSetBit(j + 1)) {
+                if (j == i || this.superClasses[j].get(i)) {
+                    equivalents.set(j);
+                }
+            }
+            equivalents.set(i);
+            equivalentClasses[i] = equivalents;
+        }
+        for (int i = 0; i < this.classes.size(); i++) {
+            this.superClasses[i].andNot(equivalentClasses[i]);
+        }
+    }
+
+    private void addParents(List<Set<Integer>> parents, OWLClass cls, OWLClassExpression superClass) {
+        Integer id = this.ids.get(cls);
+        for (OWLClassExpression conjunct : superClass.asConjunctSet()) {
+            if (!conjunct.isAnonymous()) {
+                Integer parentId = this.ids.get(conjunct.asOWLClass());
+                if (id != null && parentId != null) {
+                    parents.get(id).add(parentId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if superClass is a (direct or indirect) super class of cls.
+     *
+     * @param cls class
+     * @param superClass candidate super class
+     * @return true or false
+     */
+    public boolean isSubClassOf(OWLClass cls, OWLClass superClass) {
+        Integer id = this.ids.get(cls);
+        Integer superId = this.ids.get(superClass);
+        if (superId == null) {
+            return false;
+        }
+
+        return id == null ? superId == this.owlThingId : this.superClasses[id].get(superId);
+    }
+
+    /**
+     * Get all the (direct and indirect) super classes of a class.
+     *
+     * @param cls class
+     * @return the super classes, ordered by id
+     */
+    public List<OWLClass> getSuperClasses(OWLClass cls) {
+        Integer id = this.ids.get(cls);
+        if (id == null) {
+            return List.of(this.classes.get(this.owlThingId));
+        }
+
+        BitSet closure = this.superClasses[id];
+        List<OWLClass> result = new ArrayList<>(closure.cardinality());
+        for (int i = closure.nextSetBit(0); i >= 0; i = closure.nextSetBit(i + 1)) {
+            result.add(this.classes.get(i));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+package edu.isi.oba;
+
+import static edu.isi.oba.Oba.logger;
+
+import java.util.List;
+import java.util.Set;
+
+import org.json.JSONObject;
+
+import org.semanticweb.owlapi.model.*;
+
+/**
+ * Builds the JSON-LD contexts of the API (context.json and context_class.json) from the loaded ontologies,
+ * in the same shape as owl2jsonld: classes map to their IRI, and properties also get a @set container and,
+ * when known, the @type of their values (@id for object properties, the datatype for data properties).
+ */
+class ContextGenerator {
+    private static final String CONTEXT = "@context";
+
+    private final JSONObject context = new JSONObject();
+    private final JSONObject classContext = new JSONObject();
+
+    public ContextGenerator(List<OWLOntology> ontologies) {
+        this.context.put("id", "@id");
+        this.context.put("type", "@type");
+        this.classContext.put("id", "@id");
+        this.classContext.put("type", "@type");
+
+        for (OWLOntology ontology : ontologies) {
+            for (OWLClass cls : ontology.getClassesInSignature()) {
+                if (!cls.isOWLThing() && !cls.isOWLNothing()) {
+                    String name = getName(cls);
+                    if (name != null) {
+                        JSONObject term = new JSONObject().put("@id", cls.getIRI().toString());
+                        this.context.put(name, term);
+                        this.classContext.put(name, term);
+                    }
+                }
+            }
+
+            for (OWLObjectProperty property : ontology.getObjectPropertiesInSignature()) {
+                String name = getName(property);
+                if (name != null && !property.isOWLTopObjectProperty() && !property.isOWLBottomObjectProperty()) {
+                    this.context.put(name, getPropertyTerm(property).put("@type", "@id"));
+                }
+            }
+
+            for (OWLDataProperty property : ontology.getDataPropertiesInSignature()) {
+                String name = getName(property);
+                if (name != null && !property.isOWLTopDataProperty() && !property.isOWLBottomDataProperty()) {
+                    JSONObject term = getPropertyTerm(property);
+                    String datatype = getDatatype(ontology, property);
+                    if (datatype != null) {
+                        term.put("@type", datatype);
+                    }
+                    this.context.put(name, term);
+                }
+            }
+
+            for (OWLAnnotationProperty property : ontology.getAnnotationPropertiesInSignature()) {
+                String name = getName(property);
+                if (name != null) {
+                    this.context.put(name, getPropertyTerm(property));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the context with the classes and properties of the ontologies
+     */
+    public JSONObject getContext() {
+        return new JSONObject().put(CONTEXT, this.context);
+    }
+
+    /**
+     * @return the context with only the classes of the ontologies
+     */
+    public JSONObject getClassContext() {
+        return new JSONObject().put(CONTEXT, this.classContext);
+    }
+
+    private static JSONObject getPropertyTerm(OWLEntity property) {
+        return new JSONObject()
+                .put("@id", property.getIRI().toString())
+                .put("@container", "@set");
+    }
+
+    /**
+     * Get the datatype of a data property if its range (in the ontology declaring it) is a single named datatype.
+     */
+    private static String getDatatype(OWLOntology ontology, OWLDataProperty property) {
+        Set<OWLDataPropertyRangeAxiom> ranges = ontology.getDataPropertyRangeAxioms(property);
+        if (ranges.size() == 1) {
+            OWLDataRange range = ranges.iterator().next().getRange();
+            if (range.isOWLDatatype() && !range.asOWLDatatype().isTopDatatype()) {
+                return range.asOWLDatatype().getIRI().toString();
+            }
+        }
+        return null;
+    }
+
+    private static String getName(OWLEntity entity) {
+        String name = entity.getIRI().getRemainder().orElse("");
+        if (name.isEmpty()) {
+            logger.warning("Generating of context.json - Ignoring the entity " + entity.getIRI() + ": Name is empty.");
+            return null;
+        }
+        return name;
+    }
+}
@@ -0,0 +1,359 @@
+package edu.isi.oba;
+
+import io.swagger.v3.oas.models.ExternalDocumentation;
+import io.swagger.v3.oas.models.SpecVersion;
+import io.swagger.v3.oas.models.media.Discriminator;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.XML;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Schema that can't be modified after it is created, so that it can be shared by several schemas
+ * (e.g. the base schema of a datatype, used as the items of many arrays).
+ * All the setters, and the fluent methods that change the schema, throw an UnsupportedOperationException:
+ * a schema that needs changes must be a new one.
+ */
+class ImmutableSchema extends Schema<Object> {
+  private final boolean frozen;
+
+  /**
+   * @param schema schema whose type and format are copied
+   */
+  ImmutableSchema(Schema schema) {
+    super(schema.getType(), schema.getFormat());
+    this.frozen = true;
+  }
+
+  private UnsupportedOperationException immutable() {
+    return new UnsupportedOperationException("The schema of type " + this.getType() + " is shared and can't be modified");
+  }
+
+  @Override
+  public Set<String> getTypes() {
+    Set<String> types = super.getTypes();
+    return types == null ? null : Collections.unmodifiableSet(types);
+  }
+
+  @Override
+  public boolean addType(String value) {
+    //The constructor of Schema adds the type
+    if (this.frozen) {
+      throw immutable();
+    }
+    return super.addType(value);
+  }
+
+  @Override
+  public void setSpecVersion(SpecVersion value) { throw immutable(); }
+  @Override
+  public Schema specVersion(SpecVersion value) { throw immutable(); }
+  @Override
+  public void setContains(Schema value) { throw immutable(); }
+  @Override
+  public void set$id(String value) { throw immutable(); }
+  @Override
+  public void set$schema(String value) { throw immutable(); }
+  @Override
+  public void set$anchor(String value) { throw immutable(); }
+  @Override
+  public void setExclusiveMaximumValue(BigDecimal value) { throw immutable(); }
+  @Override
+  public Schema exclusiveMaximumValue(BigDecimal value) { throw immutable(); }
+  @Override
+  public void setExclusiveMinimumValue(BigDecimal value) { throw immutable(); }
+  @Override
+  public Schema exclusiveMinimumValue(BigDecimal value) { throw immutable(); }
+  @Override
+  public void setPatternProperties(Map<String, Schema> value) { throw immutable(); }
+  @Override
+  public Schema patternProperties(Map<String, Schema> value) { throw immutable(); }
+  @Override
+  public Schema addPatternProperty(String key, Schema value) { throw immutable(); }
+  @Override
+  public Schema contains(Schema value) { throw immutable(); }
+  @Override
+  public Schema $id(String value) { throw immutable(); }
+  @Override
+  public void setTypes(Set<String> value) { throw immutable(); }
+  @Override
+  public Schema $schema(String value) { throw immutable(); }
+  @Override
+  public void set$vocabulary(String value) { throw immutable(); }
+  @Override
+  public Schema $vocabulary(String value) { throw immutable(); }
+  @Override
+  public void set$dynamicAnchor(String value) { throw immutable(); }
+  @Override
+  public Schema $dynamicAnchor(String value) { throw immutable(); }
+  @Override
+  public Schema $anchor(String value) { throw immutable(); }
+  @Override
+  public Schema types(Set<String> value) { throw immutable(); }
+  @Override
+  public void setJsonSchema(Map<String, Object> value) { throw immutable(); }
+  @Override
+  public Schema jsonSchema(Map<String, Object> value) { throw immutable(); }
+  @Override
+  public void setJsonSchemaImpl(Object value) { throw immutable(); }
+  @Override
+  public Schema jsonSchemaImpl(Object value) { throw immutable(); }
+  @Override
+  public void setAllOf(List<Schema> value) { throw immutable(); }
+  @Override
+  public Schema allOf(List<Schema> value) { throw immutable(); }
+  @Override
+  public Schema addAllOfItem(Schema value) { throw immutable(); }
+  @Override
+  public void setAnyOf(List<Schema> value) { throw immutable(); }
+  @Override
+  public Schema anyOf(List<Schema> value) { throw immutable(); }
+  @Override
+  public Schema addAnyOfItem(Schema value) { throw immutable(); }
+  @Override
+  public void setOneOf(List<Schema> value) { throw immutable(); }
+  @Override
+  public Schema oneOf(List<Schema> value) { throw immutable(); }
+  @Override
+  public Schema addOneOfItem(Schema value) { throw immutable(); }
+  @Override
+  public void setItems(Schema<?> value) { throw immutable(); }
+  @Override
+  public Schema items(Schema<?> value) { throw immutable(); }
+  @Override
+  public void setName(String value) { throw immutable(); }
+  @Override
+  public Schema name(String value) { throw immutable(); }
+  @Override
+  public void setDiscriminator(Discriminator value) { throw immutable(); }
+  @Override
+  public Schema discriminator(Discriminator value) { throw immutable(); }
+  @Override
+  public void setTitle(String value) { throw immutable(); }
+  @Override
+  public Schema title(String value) { throw immutable(); }
+  @Override
+  public void setDefault(Object value) { throw immutable(); }
+  @Override
+  public void setEnum(List<Object> value) { throw immutable(); }
+  @Override
+  public void addEnumItemObject(Object value) { throw immutable(); }
+  @Override
+  public void setMultipleOf(BigDecimal value) { throw immutable(); }
+  @Override
+  public Schema multipleOf(BigDecimal value) { throw immutable(); }
+  @Override
+  public void setMaximum(BigDecimal value) { throw immutable(); }
+  @Override
+  public Schema maximum(BigDecimal value) { throw immutable(); }
+  @Override
+  public void setExclusiveMaximum(Boolean value) { throw immutable(); }
+  @Override
+  public Schema exclusiveMaximum(Boolean value) { throw immutable(); }
+  @Override
+  public void setMinimum(BigDecimal value) { throw immutable(); }
+  @Override
+  public Schema minimum(BigDecimal value) { throw immutable(); }
+  @Override
+  public void setExclusiveMinimum(Boolean value) { throw immutable(); }
+  @Override
+  public Schema exclusiveMinimum(Boolean value) { throw immutable(); }
+  @Override
+  public void setMaxLength(Integer value) { throw immutable(); }
+  @Override
+  public Schema maxLength(Integer value) { throw immutable(); }
+  @Override
+  public void setMinLength(Integer value) { throw immutable(); }
+  @Override
+  public Schema minLength(Integer value) { throw immutable(); }
+  @Override
+  public void setPattern(String value) { throw immutable(); }
+  @Override
+  public Schema pattern(String value) { throw immutable(); }
+  @Override
+  public void setMaxItems(Integer value) { throw immutable(); }
+  @Override
+  public Schema maxItems(Integer value) { throw immutable(); }
+  @Override
+  public void setMinItems(Integer value) { throw immutable(); }
+  @Override
+  public Schema minItems(Integer value) { throw immutable(); }
+  @Override
+  public void setUniqueItems(Boolean value) { throw immutable(); }
+  @Override
+  public Schema uniqueItems(Boolean value) { throw immutable(); }
+  @Override
+  public void setMaxProperties(Integer value) { throw immutable(); }
+  @Override
+  public Schema maxProperties(Integer value) { throw immutable(); }
+  @Override
+  public void setMinProperties(Integer value) { throw immutable(); }
+  @Override
+  public Schema minProperties(Integer value) { throw immutable(); }
+  @Override
+  public void setRequired(List<String> value) { throw immutable(); }
+  @Override
+  public Schema required(List<String> value) { throw immutable(); }
+  @Override
+  public Schema addRequiredItem(String value) { throw immutable(); }
+  @Override
+  public void setType(String value) { throw immutable(); }
+  @Override
+  public Schema type(String value) { throw immutable(); }
+  @Override
+  public void setNot(Schema value) { throw immutable(); }
+  @Override
+  public Schema not(Schema value) { throw immutable(); }
+  @Override
+  public void setProperties(Map<String, Schema> value) { throw immutable(); }
+  @Override
+  public Schema properties(Map<String, Schema> value) { throw immutable(); }
+  @Override
+  public Schema addProperties(String key, Schema value) { throw immutable(); }
+  @Override
+  public Schema addProperty(String key, Schema value) { throw immutable(); }
+  @Override
+  public void setAdditionalProperties(Object value) { throw immutable(); }
+  @Override
+  public Schema additionalProperties(Object value) { throw immutable(); }
+  @Override
+  public void setDescription(String value) { throw immutable(); }
+  @Override
+  public Schema description(String value) { throw immutable(); }
+  @Override
+  public void setFormat(String value) { throw immutable(); }
+  @Override
+  public Schema format(String value) { throw immutable(); }
+  @Override
+  public void set$ref(String value) { throw immutable(); }
+  @Override
+  public Schema $ref(String value) { throw immutable(); }
+  @Override
+  public Schema raw$ref(String value) { throw immutable(); }
+  @Override
+  public void setNullable(Boolean value) { throw immutable(); }
+  @Override
+  public Schema nullable(Boolean value) { throw immutable(); }
+  @Override
+  public void setReadOnly(Boolean value) { throw immutable(); }
+  @Override
+  public Schema readOnly(Boolean value) { throw immutable(); }
+  @Override
+  public void setWriteOnly(Boolean value) { throw immutable(); }
+  @Override
+  public Schema writeOnly(Boolean value) { throw immutable(); }
+  @Override
+  public void setExample(Object value) { throw immutable(); }
+  @Override
+  public Schema example(Object value) { throw immutable(); }
+  @Override
+  public void setExternalDocs(ExternalDocumentation value) { throw immutable(); }
+  @Override
+  public Schema externalDocs(ExternalDocumentation value) { throw immutable(); }
+  @Override
+  public void setDeprecated(Boolean value) { throw immutable(); }
+  @Override
+  public Schema deprecated(Boolean value) { throw immutable(); }
+  @Override
+  public void setXml(XML value) { throw immutable(); }
+  @Override
+  public Schema xml(XML value) { throw immutable(); }
+  @Override
+  public void setExampleSetFlag(boolean value) { throw immutable(); }
+  @Override
+  public void setPrefixItems(List<Schema> value) { throw immutable(); }
+  @Override
+  public Schema prefixItems(List<Schema> value) { throw immutable(); }
+  @Override
+  public Schema addPrefixItem(Schema value) { throw immutable(); }
+  @Override
+  public void setContentEncoding(String value) { throw immutable(); }
+  @Override
+  public Schema contentEncoding(String value) { throw immutable(); }
+  @Override
+  public void setContentMediaType(String value) { throw immutable(); }
+  @Override
+  public Schema contentMediaType(String value) { throw immutable(); }
+  @Override
+  public void setContentSchema(Schema value) { throw immutable(); }
+  @Override
+  public Schema contentSchema(Schema value) { throw immutable(); }
+  @Override
+  public void setPropertyNames(Schema value) { throw immutable(); }
+  @Override
+  public Schema propertyNames(Schema value) { throw immutable(); }
+  @Override
+  public void setUnevaluatedProperties(Schema value) { throw immutable(); }
+  @Override
+  public Schema unevaluatedProperties(Schema value) { throw immutable(); }
+  @Override
+  public void setMaxContains(Integer value) { throw immutable(); }
+  @Override
+  public Schema maxContains(Integer value) { throw immutable(); }
+  @Override
+  public void setMinContains(Integer value) { throw immutable(); }
+  @Override
+  public Schema minContains(Integer value) { throw immutable(); }
+  @Override
+  public void setAdditionalItems(Schema value) { throw immutable(); }
+  @Override
+  public Schema additionalItems(Schema value) { throw immutable(); }
+  @Override
+  public void setUnevaluatedItems(Schema value) { throw immutable(); }
+  @Override
+  public Schema unevaluatedItems(Schema value) { throw immutable(); }
+  @Override
+  public void setIf(Schema value) { throw immutable(); }
+  @Override
+  public Schema _if(Schema value) { throw immutable(); }
+  @Override
+  public void setElse(Schema value) { throw immutable(); }
+  @Override
+  public Schema _else(Schema value) { throw immutable(); }
+  @Override
+  public void setThen(Schema value) { throw immutable(); }
+  @Override
+  public Schema then(Schema value) { throw immutable(); }
+  @Override
+  public void setDependentSchemas(Map<String, Schema> value) { throw immutable(); }
+  @Override
+  public Schema dependentSchemas(Map<String, Schema> value) { throw immutable(); }
+  @Override
+  public void setDependentRequired(Map<String, List<String>> value) { throw immutable(); }
+  @Override
+  public Schema dependentRequired(Map<String, List<String>> value) { throw immutable(); }
+  @Override
+  public void set$comment(String value) { throw immutable(); }
+  @Override
+  public Schema $comment(String value) { throw immutable(); }
+  @Override
+  public void setExamples(List<Object> value) { throw immutable(); }
+  @Override
+  public Schema<Object> examples(List<Object> value) { throw immutable(); }
+  @Override
+  public void addExample(Object value) { throw immutable(); }
+  @Override
+  public void addExtension(String key, Object value) { throw immutable(); }
+  @Override
+  public void setExtensions(Map<String, Object> value) { throw immutable(); }
+  @Override
+  public Schema extensions(Map<String, Object> value) { throw immutable(); }
+  @Override
+  public Schema _default(Object value) { throw immutable(); }
+  @Override
+  public Schema _enum(List<Object> value) { throw immutable(); }
+  @Override
+  public Schema exampleSetFlag(boolean value) { throw immutable(); }
+  @Override
+  public void setConst(Object value) { throw immutable(); }
+  @Override
+  public Schema _const(Object value) { throw immutable(); }
+  @Override
+  public void setBooleanSchemaValue(Boolean value) { throw immutable(); }
+  @Override
+  public Schema booleanSchemaValue(Boolean value) { throw immutable(); }
+}
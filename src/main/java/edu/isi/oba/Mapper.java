@@ -13,6 +13,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -31,16 +34,25 @@ class Mapper {
     final Paths paths = new Paths();
     List<String> selected_paths;
     List<OWLOntology> ontologies;
-    List<OWLClass> selected_classes;
-    List<OWLClass> mappedClasses;
+    Set<OWLClass> selected_classes;
+    Set<OWLClass> mappedClasses;
+    //Smallest depth at which each class was reached by following references
+    private final Map<OWLClass, Integer> mappedDepths = new HashMap<>();
+    //Number of classes reached by following references, by depth
+    private final Map<Integer, Integer> referenceDepths = new TreeMap<>();
+    private int skippedReferences = 0;
     YamlConfig config_data;
+    OntologyIndex index;
+    //Schemas mapped ahead of time by the parallel mode, by class IRI
+    private final Map<IRI, MapperSchema> preparedSchemas = new ConcurrentHashMap<>();
+    private final Map<IRI, MapperSchema> mapperSchemas = new HashMap<>();
 
     public OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
 
     public Mapper(YamlConfig config_data) throws OWLOntologyCreationException, IOException {
         this.config_data = config_data;
         this.selected_paths = config_data.getPaths();
-        this.mappedClasses = new ArrayList<>();
+        this.mappedClasses = new HashSet<>();
 
         List<String> config_ontologies = config_data.getOntologies();
         String destination_dir = config_data.getOutput_dir() + File.separator + config_data.getName();
@@ -53,9 +65,11 @@ class Mapper {
         int i = 0;
         List<String> ontologyPaths = new ArrayList<>();
         this.download_ontologies(config_ontologies, destination_dir, i, ontologyPaths);
-        //set ontology paths in YAML to the ones we have downloaded (for later reference by owl2jsonld)
+        //set ontology paths in YAML to the ones we have downloaded (for later reference)
         this.config_data.setOntologies(ontologyPaths);
         ontologies = this.manager.ontologies().collect(Collectors.toList());
+        //Index the axioms shared by all the schemas once, instead of rescanning them for each class
+        this.index = new OntologyIndex(ontologies);
 
         //Create a temporal Map<IRI, String> schemaNames with the classes
         for (OWLOntology ontology : ontologies) {
@@ -65,7 +79,7 @@ class Mapper {
         }
 
         if (config_data.getClasses() != null) {
-            this.selected_classes = this.filter_classes();
+            this.selected_classes = new HashSet<>(this.filter_classes());
         }
     }
 
@@ -105,7 +119,8 @@ class Mapper {
      * @param destination_dir directory to write the final results
      */
     public void createSchemas(String destination_dir) {
-        Query query = new Query(destination_dir);
+        Query query = new Query(destination_dir, this.config_data.getConfigFlags(), this.config_data.getExpand_depth(),
+                this.config_data.getBulk_chunk_size());
         PathGenerator pathGenerator = new PathGenerator(this.config_data.getConfigFlags(),
             this.config_data.getAuth().getEnable()
         );
@@ -116,6 +131,12 @@ class Mapper {
             logger.severe("Unable write the queries");
         }
 
+        Integer threads = this.config_data.getThreads();
+        if (threads != null && threads > 1) {
+            this.prepareSchemas(threads);
+        }
+
+        //Add the schemas and paths in the same order as the serial mapping, so the output does not depend on the threads
         for (OWLOntology ontology : this.ontologies) {
 
             OWLDocumentFormat format = ontology.getFormat();
@@ -130,12 +151,17 @@ class Mapper {
                 //filter if the class prefix does not have the default ontology prefix
                 if (cls.getIRI() != null) {
                     if (this.selected_classes == null || this.selected_classes.contains(cls)) {
-                        this.add_owlclass_to_openapi(query, pathGenerator, ontology, defaultOntologyPrefixIRI, cls, true);
+                        this.add_owlclass_to_openapi(query, pathGenerator, ontology, defaultOntologyPrefixIRI, cls);
                     }
                 }
             }
         }
 
+        if (this.config_data.getConfigFlagValue(CONFIG_FLAG.FOLLOW_REFERENCES)) {
+            logger.info("Classes reached by following references: " + this.mappedClasses.size()
+                    + " (by depth: " + this.referenceDepths + "), not followed because of the limits: " + this.skippedReferences);
+        }
+
         if (this.config_data.getAuth().getEnable()) {
             this.add_user_path(pathGenerator);
         }
@@ -158,29 +184,44 @@ class Mapper {
         this.paths.addPathItem("/user/login", pathGenerator.user_login(userSchema.getName()));
     }
 
-    private List<OWLClass> add_owlclass_to_openapi(Query query, PathGenerator pathGenerator, OWLOntology ontology,
-                                                   String defaultOntologyPrefixIRI, OWLClass cls, Boolean topLevel) {
-        List<OWLClass> ref = new ArrayList<>();
-        String classPrefixIRI = cls.getIRI().getNamespace();
-        if (defaultOntologyPrefixIRI.equals(classPrefixIRI)) {
+    /**
+     * Add a class to the specification, and (with FOLLOW_REFERENCES) the classes it references.
+     * The references are followed breadth-first with a worklist, within the configured depth and size limits.
+     * A class already reached from another selected class is visited again when this one reaches it through fewer
+     * references, so the classes within follow_references_depth do not depend on the order of the selected classes.
+     */
+    private void add_owlclass_to_openapi(Query query, PathGenerator pathGenerator, OWLOntology ontology,
+                                         String defaultOntologyPrefixIRI, OWLClass cls) {
+        Deque<ClassReference> worklist = new ArrayDeque<>();
+        worklist.add(new ClassReference(ontology, cls, 0));
+        while (!worklist.isEmpty()) {
+            ClassReference current = worklist.poll();
+            String classPrefixIRI = current.cls.getIRI().getNamespace();
+            if (!defaultOntologyPrefixIRI.equals(classPrefixIRI)) {
+                continue;
+            }
+
             try{
-                MapperSchema mapperSchema = getMapperSchema(query, ontology, cls, this.schemaDescriptions.get(cls.getIRI()));
+                MapperSchema mapperSchema = getMapperSchema(query, current.ontology, current.cls, this.schemaDescriptions.get(current.cls.getIRI()));
+                int depth = current.depth + 1;
 
                 // add references to schemas in class restrictions (check selected classes to avoid conflicts)
                 for (String classToCheck : mapperSchema.getPropertiesFromObjectRestrictions_ranges()) {
                     OWLClass clsToCheck = manager.getOWLDataFactory().getOWLClass(IRI.create(classPrefixIRI + classToCheck));
-                    if (this.mappedClasses.contains(clsToCheck) || (this.selected_classes != null && this.selected_classes.contains(clsToCheck))){
+                    if (this.isMapped(clsToCheck, depth) || (this.selected_classes != null && this.selected_classes.contains(clsToCheck))){
                         logger.info("The class " + clsToCheck + " exists ");
                     } else {
                         //rare cases have instances, so we filter them out and recheck that the target is a class.
-                        if(ontology.containsClassInSignature(clsToCheck.getIRI())) {
+                        OWLOntology clsOntology = this.getClassOntology(clsToCheck);
+                        if (clsOntology != null) {
                             System.out.println("ADD "+ clsToCheck);
-                            for (OWLOntology temp_ontology : this.ontologies) {
-                                if (this.config_data.getConfigFlagValue(CONFIG_FLAG.FOLLOW_REFERENCES)) {
-                                    this.mappedClasses.add(clsToCheck);
-                                    this.getMapperSchema(query, temp_ontology, clsToCheck, this.schemaDescriptions.get(clsToCheck.getIRI()));
-                                    this.add_owlclass_to_openapi(query, pathGenerator, temp_ontology, classPrefixIRI, clsToCheck, false);
+                            //A class reached again with a smaller depth was already mapped (or failed) the first time
+                            boolean reached = this.mappedClasses.contains(clsToCheck);
+                            if (this.config_data.getConfigFlagValue(CONFIG_FLAG.FOLLOW_REFERENCES) && this.followReference(clsToCheck, depth)) {
+                                if (!reached) {
+                                    this.getMapperSchema(query, clsOntology, clsToCheck, this.schemaDescriptions.get(clsToCheck.getIRI()));
                                 }
+                                worklist.add(new ClassReference(clsOntology, clsToCheck, depth));
                             }
                         }
                     }
@@ -188,41 +229,245 @@ class Mapper {
 
                 // add references to schemas in property ranges
                 for (OWLClass ref_class : mapperSchema.getProperties_range()) {
-                    if (this.mappedClasses.contains(ref_class)){
+                    if (this.isMapped(ref_class, depth)){
                         logger.info("The class " + ref_class + " exists ");
                     } else {
-                        for (OWLOntology temp_ontology : this.ontologies) {
-                            if (this.config_data.getConfigFlagValue(CONFIG_FLAG.FOLLOW_REFERENCES)) {
-                                this.mappedClasses.add(ref_class);
-                                this.getMapperSchema(query, temp_ontology, ref_class,this.schemaDescriptions.get(ref_class.getIRI()));
-                                this.add_owlclass_to_openapi(query, pathGenerator, temp_ontology, classPrefixIRI, ref_class, false);
+                        boolean reached = this.mappedClasses.contains(ref_class);
+                        if (this.config_data.getConfigFlagValue(CONFIG_FLAG.FOLLOW_REFERENCES) && this.followReference(ref_class, depth)) {
+                            if (!reached) {
+                                this.getMapperSchema(query, current.ontology, ref_class, this.schemaDescriptions.get(ref_class.getIRI()));
                             }
+                            worklist.add(new ClassReference(current.ontology, ref_class, depth));
                         }
                     }
                 }
-                
+
                 //Add the OpenAPI paths
-                if (topLevel) {
-                    addOpenAPIPaths(pathGenerator, mapperSchema, cls);
+                if (current.depth == 0) {
+                    addOpenAPIPaths(pathGenerator, mapperSchema, current.cls);
                 }
             }catch(Exception e){
-                logger.log(Level.SEVERE,"Could not parse class "+cls.getIRI().toString());
+                logger.log(Level.SEVERE,"Could not parse class "+current.cls.getIRI().toString());
             }
         }
-        return ref;
+    }
+
+    /**
+     * @param cls referenced class
+     * @param depth number of references from the selected class
+     * @return true if the class was already reached by following references, with this depth or a smaller one
+     */
+    private boolean isMapped(OWLClass cls, int depth) {
+        Integer mappedDepth = this.mappedDepths.get(cls);
+        return mappedDepth != null && mappedDepth <= depth;
+    }
+
+    /**
+     * Mark a referenced class as mapped, unless it is beyond follow_references_depth or follow_references_limit.
+     * A class reached again with a smaller depth is followed again, without counting it twice for the limit.
+     * The limit still depends on the order of the selected classes, since it keeps the first classes reached.
+     *
+     * @param cls referenced class
+     * @param depth number of references from the selected class
+     * @return true if the reference must be followed
+     */
+    private boolean followReference(OWLClass cls, int depth) {
+        Integer maxDepth = this.config_data.getFollow_references_depth();
+        Integer limit = this.config_data.getFollow_references_limit();
+        Integer mappedDepth = this.mappedDepths.get(cls);
+        if ((maxDepth != null && depth > maxDepth) || (mappedDepth == null && limit != null && this.mappedClasses.size() >= limit)) {
+            this.skippedReferences++;
+            return false;
+        }
+
+        if (mappedDepth != null) {
+            this.referenceDepths.computeIfPresent(mappedDepth, (d, count) -> count > 1 ? count - 1 : null);
+        }
+        this.mappedClasses.add(cls);
+        this.mappedDepths.put(cls, depth);
+        this.referenceDepths.merge(depth, 1, Integer::sum);
+        return true;
+    }
+
+    /**
+     * A class waiting in the worklist of add_owlclass_to_openapi, with the number of references from the selected class.
+     */
+    private static class ClassReference {
+        final OWLOntology ontology;
+        final OWLClass cls;
+        final int depth;
+
+        ClassReference(OWLOntology ontology, OWLClass cls, int depth) {
+            this.ontology = ontology;
+            this.cls = cls;
+            this.depth = depth;
+        }
     }
 
     private MapperSchema getMapperSchema(Query query, OWLOntology ontology, OWLClass cls, String cls_description) {
-        //Convert from OWL Class to OpenAPI Schema.
-        MapperSchema mapperSchema = new MapperSchema(this.ontologies, cls, cls_description, schemaNames, ontology, this.config_data.getConfigFlags());
+        //Each class is mapped once, whichever ontology or reference reaches it first
+        MapperSchema mapperSchema = this.mapperSchemas.get(cls.getIRI());
+        if (mapperSchema != null) {
+            return mapperSchema;
+        }
+
+        //Convert from OWL Class to OpenAPI Schema (unless the parallel mode already did it).
+        mapperSchema = this.preparedSchemas.get(cls.getIRI());
+        if (mapperSchema == null) {
+            mapperSchema = this.buildMapperSchema(ontology, cls, cls_description);
+        }
+        this.mapperSchemas.put(cls.getIRI(), mapperSchema);
         //Write queries
         query.write_readme(mapperSchema.name);
+        boolean propertyFilters = this.config_data.getConfigFlagValue(CONFIG_FLAG.PROPERTY_FILTERS);
+        if (this.config_data.getConfigFlagValue(CONFIG_FLAG.CLASS_QUERIES) || propertyFilters) {
+            try {
+                query.write_class_queries(mapperSchema.name, cls.getIRI(), mapperSchema.getPropertyIRIs().values(),
+                        propertyFilters ? mapperSchema.getPropertyFilters() : Collections.emptyList());
+            } catch (Exception e) {
+                logger.severe("Unable write the queries of " + mapperSchema.name);
+            }
+        }
         //Create the OpenAPI schema
         Schema schema = mapperSchema.getSchema();
         schemas.put(schema.getName(), schema);
         return mapperSchema;
     }
 
+    /**
+     * Get the name of the schema of each mapped class
+     */
+    public Map<IRI, String> getMappedSchemaNames() {
+        Map<IRI, String> names = new HashMap<>();
+        this.mapperSchemas.forEach((iri, mapperSchema) -> names.put(iri, mapperSchema.name));
+        return names;
+    }
+
+    private MapperSchema buildMapperSchema(OWLOntology ontology, OWLClass cls, String cls_description) {
+        //Use the ontology declaring the class, so the schema does not depend on the path that reached it
+        OWLOntology clsOntology = this.getClassOntology(cls);
+        return new MapperSchema(this.ontologies, cls, cls_description, schemaNames, clsOntology != null ? clsOntology : ontology, this.config_data.getConfigFlags(), this.index);
+    }
+
+    /**
+     * Get the loaded ontology that declares the class: the one whose default prefix is the namespace of the class,
+     * otherwise the first one that has the class in its signature.
+     *
+     * @param cls class
+     * @return the ontology, or null if no ontology contains the class
+     */
+    private OWLOntology getClassOntology(OWLClass cls) {
+        OWLOntology clsOntology = null;
+        for (OWLOntology ontology : this.ontologies) {
+            if (ontology.containsClassInSignature(cls.getIRI())) {
+                if (cls.getIRI().getNamespace().equals(ontology.getFormat().asPrefixOWLDocumentFormat().getDefaultPrefix())) {
+                    return ontology;
+                } else if (clsOntology == null) {
+                    clsOntology = ontology;
+                }
+            }
+        }
+
+        return clsOntology;
+    }
+
+    /**
+     * Map the classes (and the classes they reference) concurrently on a fork/join pool.
+     * The schemas are only kept in preparedSchemas, createSchemas adds them afterwards in a fixed order.
+     *
+     * @param threads parallelism of the pool
+     */
+    private void prepareSchemas(int threads) {
+        Map<IRI, Integer> submitted = new ConcurrentHashMap<>();
+        List<SchemaTask> tasks = new ArrayList<>();
+        for (OWLOntology ontology : this.ontologies) {
+            String defaultOntologyPrefixIRI = ontology.getFormat().asPrefixOWLDocumentFormat().getDefaultPrefix();
+            if (defaultOntologyPrefixIRI == null) {
+                continue;
+            }
+
+            for (OWLClass cls : ontology.getClassesInSignature()) {
+                if (this.selected_classes == null || this.selected_classes.contains(cls)) {
+                    tasks.add(new SchemaTask(ontology, defaultOntologyPrefixIRI, cls, 0, submitted));
+                }
+            }
+        }
+
+        logger.info("Mapping " + tasks.size() + " classes with " + threads + " threads");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Maps one class of an ontology and forks the classes that add_owlclass_to_openapi would follow from it.
+     */
+    private class SchemaTask extends RecursiveAction {
+        private final OWLOntology ontology;
+        private final String prefixIRI;
+        private final OWLClass cls;
+        private final int depth;
+        //Smallest depth at which each class was submitted
+        private final Map<IRI, Integer> submitted;
+
+        SchemaTask(OWLOntology ontology, String prefixIRI, OWLClass cls, int depth, Map<IRI, Integer> submitted) {
+            this.ontology = ontology;
+            this.prefixIRI = prefixIRI;
+            this.cls = cls;
+            this.depth = depth;
+            this.submitted = submitted;
+        }
+
+        @Override
+        protected void compute() {
+            //Map each class once, but follow its references again when it is reached with a smaller depth
+            Integer previous = this.submitted.putIfAbsent(this.cls.getIRI(), this.depth);
+            if (previous != null && (this.depth >= previous || !this.submitted.replace(this.cls.getIRI(), previous, this.depth))) {
+                return;
+            }
+
+            MapperSchema mapperSchema = preparedSchemas.get(this.cls.getIRI());
+            if (mapperSchema == null) {
+                try {
+                    mapperSchema = buildMapperSchema(this.ontology, this.cls, schemaDescriptions.get(this.cls.getIRI()));
+                } catch (Exception e) {
+                    //The serial pass maps the class again and reports the error
+                    return;
+                }
+                preparedSchemas.put(this.cls.getIRI(), mapperSchema);
+            }
+
+            Integer maxDepth = config_data.getFollow_references_depth();
+            if (!this.prefixIRI.equals(this.cls.getIRI().getNamespace()) || !config_data.getConfigFlagValue(CONFIG_FLAG.FOLLOW_REFERENCES)
+                    || (maxDepth != null && this.depth >= maxDepth)) {
+                return;
+            }
+
+            List<SchemaTask> references = new ArrayList<>();
+            for (String classToCheck : mapperSchema.getPropertiesFromObjectRestrictions_ranges()) {
+                OWLClass clsToCheck = manager.getOWLDataFactory().getOWLClass(IRI.create(this.prefixIRI + classToCheck));
+                OWLOntology clsOntology = getClassOntology(clsToCheck);
+                if (clsOntology != null) {
+                    references.add(new SchemaTask(clsOntology, this.prefixIRI, clsToCheck, this.depth + 1, this.submitted));
+                }
+            }
+
+            for (OWLClass ref_class : mapperSchema.getProperties_range()) {
+                references.add(new SchemaTask(this.ontology, this.prefixIRI, ref_class, this.depth + 1, this.submitted));
+            }
+
+            invokeAll(references);
+        }
+    }
+
     private void addOpenAPIPaths(PathGenerator pathGenerator, MapperSchema mapperSchema, OWLClass cls) {
         if (this.selected_classes != null && !this.selected_classes.contains(cls)) {
             logger.info("Ignoring class " + cls.toString());
@@ -246,7 +491,7 @@ class Mapper {
     private void setSchemaDrescriptions(Set<OWLClass> classes, OWLOntology ontology){
        for (OWLClass cls: classes) {
            System.out.println(cls);
-           schemaDescriptions.put(cls.getIRI(), ObaUtils.getDescription(cls, ontology, this.config_data.getConfigFlagValue(CONFIG_FLAG.DEFAULT_DESCRIPTIONS)));
+           schemaDescriptions.put(cls.getIRI(), this.index.getDescription(cls, ontology, this.config_data.getConfigFlagValue(CONFIG_FLAG.DEFAULT_DESCRIPTIONS)));
        }
     }
 
@@ -259,16 +504,26 @@ class Mapper {
         String plural_name = "/" + nameTools.pluralize(mapperSchema.name.toLowerCase());
 
         //Create the plural paths: for example: /models/
-        this.paths.addPathItem(plural_name, pathGenerator.generate_plural(mapperSchema.name,
-                mapperSchema.getCls().getIRI().getIRIString()));
+        this.paths.addPathItem(plural_name, pathGenerator.generate_plural(mapperSchema));
+        //Create the count path: for example: /models/count
+        if (this.config_data.getConfigFlagValue(CONFIG_FLAG.TOTAL_COUNT) && this.config_data.getConfigFlagValue(CONFIG_FLAG.PATH_GET)) {
+            this.paths.addPathItem(plural_name + "/count", pathGenerator.generate_count(mapperSchema));
+        }
+        //Create the export path: for example: /models/export
+        if (this.config_data.getConfigFlagValue(CONFIG_FLAG.EXPORT_PATHS) && this.config_data.getConfigFlagValue(CONFIG_FLAG.PATH_GET)) {
+            this.paths.addPathItem(plural_name + "/export", pathGenerator.generate_export(mapperSchema));
+        }
+        //Create the bulk creation path: for example: /models/bulk
+        if (this.config_data.getConfigFlagValue(CONFIG_FLAG.BULK_CREATE) && this.config_data.getConfigFlagValue(CONFIG_FLAG.PATH_POST)) {
+            this.paths.addPathItem(plural_name + "/bulk", pathGenerator.generate_bulk(mapperSchema));
+        }
         //Create the plural paths: for example: /models/id
-        this.paths.addPathItem(plural_name + "/{id}", pathGenerator.generate_singular(mapperSchema.name,
-                mapperSchema.getCls().getIRI().getIRIString()));
+        this.paths.addPathItem(plural_name + "/{id}", pathGenerator.generate_singular(mapperSchema));
     }
 
 
     public List<OWLClass> filter_classes() {
-        List<String> selected_classes_iri = this.config_data.getClasses();
+        Set<String> selected_classes_iri = new HashSet<>(this.config_data.getClasses());
         ArrayList<OWLClass> filtered_classes = new ArrayList();
         for (OWLOntology ontology : this.ontologies) {
             for (OWLClass cls : ontology.getClassesInSignature()) {
@@ -4,71 +4,74 @@ import static edu.isi.oba.Oba.logger;
 
 import io.swagger.v3.oas.models.media.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 class MapperDataProperty {
-  private final Map<String, String> dataTypes = Map.ofEntries(
-    Map.entry("ENTITIES", "string"),
-    Map.entry("ENTITY", "string"),
-    Map.entry("ID", "string"),
-    Map.entry("IDREF", "string"),
-    Map.entry("IDREFS", "string"),
-    Map.entry("NCName", "string"),
-    Map.entry("NMTOKEN", "string"),
-    Map.entry("NMTOKENS", "string"),
-    Map.entry("NOTATION", "string"),
-    Map.entry("Name", "string"),
-    Map.entry("QName", "string"),
-    Map.entry("anySimpleType", "string"),
-    Map.entry("anyType", "string"),
-    Map.entry("anyURI", "string"),
-    Map.entry("base64Binary", "string"),
-    Map.entry("boolean", "boolean"),
-    Map.entry("byte", "integer"),
-    Map.entry("date", "string"),
-    Map.entry("dateTime", "dateTime"),
-    Map.entry("dateTimeStamp", "dateTime"),
-    Map.entry("decimal", "number"),
-    Map.entry("double", "number"),
-    Map.entry("duration", "string"),
-    Map.entry("float", "number"),
-    Map.entry("gDay", "string"),
-    Map.entry("gMonth", "string"),
-    Map.entry("gMonthYear", "string"),
-    Map.entry("gYear", "string"),
-    Map.entry("gYearMonth", "string"),
-    Map.entry("hexBinary", "string"),
-    Map.entry("int", "integer"),
-    Map.entry("integer", "integer"),
-    Map.entry("language", "string"),
-    Map.entry("long", "integer"),
-    Map.entry("negativeInteger", "integer"),
-    Map.entry("nonNegativeInteger", "integer"),
-    Map.entry("nonPositiveInteger", "integer"),
-    Map.entry("normalizedString", "string"),
-    Map.entry("positiveInteger", "integer"),
-    Map.entry("short", "integer"),
-    Map.entry("string", "string"),
-    Map.entry("time", "string"),
-    Map.entry("token", "string"),
-    Map.entry("unsignedByte", "integer"),
-    Map.entry("unsignedInt", "integer"),
-    Map.entry("unsignedLong", "integer"),
-    Map.entry("unsignedShort", "integer"),
-    Map.entry("langString", "string"),
-    Map.entry("Literal", "string")
-  );
-
-  private String getDataType(String key) {
-    return this.dataTypes.get(key);
+  /**
+   * OpenAPI types of the XSD datatypes. The registry and the base schema of each type are static and shared
+   * by all the properties: the base schema is immutable, and a new one is created when it is changed (restrictions, formats, etc.)
+   */
+  private enum DataType {
+    STRING("string", StringSchema::new, "ENTITIES", "ENTITY", "ID", "IDREF", "IDREFS", "NCName", "NMTOKEN", "NMTOKENS",
+        "NOTATION", "Name", "QName", "anySimpleType", "anyType", "anyURI", "base64Binary", "date", "duration",
+        "gDay", "gMonth", "gMonthYear", "gYear", "gYearMonth", "hexBinary", "language", "normalizedString",
+        "string", "time", "token", "langString", "Literal"),
+    NUMBER("number", NumberSchema::new, "decimal", "double", "float"),
+    INTEGER("integer", IntegerSchema::new, "byte", "int", "integer", "long", "negativeInteger", "nonNegativeInteger",
+        "nonPositiveInteger", "positiveInteger", "short", "unsignedByte", "unsignedInt", "unsignedLong",
+        "unsignedShort"),
+    BOOLEAN("boolean", BooleanSchema::new, "boolean"),
+    DATETIME("dateTime", DateTimeSchema::new, "dateTime", "dateTimeStamp");
+
+    private static final Map<String, DataType> XSD_DATATYPES = new HashMap<>();
+
+    static {
+      for (DataType dataType : values()) {
+        for (String xsdDatatype : dataType.xsdDatatypes) {
+          XSD_DATATYPES.put(xsdDatatype, dataType);
+        }
+      }
+    }
+
+    private final String type;
+    private final Supplier<Schema> factory;
+    private final String[] xsdDatatypes;
+    //Shared by all the properties, so it can't be modified
+    private final Schema base;
+
+    DataType(String type, Supplier<Schema> factory, String... xsdDatatypes) {
+      this.type = type;
+      this.factory = factory;
+      this.xsdDatatypes = xsdDatatypes;
+      this.base = new ImmutableSchema(factory.get());
+    }
+
+    /**
+     * @return a new base schema of the type, that can be modified
+     */
+    public Schema newSchema() {
+      return this.factory.get();
+    }
+
+    public String getType() {
+      return this.type;
+    }
+
+    /**
+     * @param xsdDatatype name of the XSD datatype (e.g. "anyURI")
+     * @return the data type, or null if the datatype is unknown
+     */
+    public static DataType get(String xsdDatatype) {
+      return XSD_DATATYPES.get(xsdDatatype);
+    }
   }
 
-  private static final String STRING_TYPE = "string";
-  private static final String NUMBER_TYPE = "number";
-  private static final String INTEGER_TYPE = "integer";
-  private static final String BOOLEAN_TYPE = "boolean";
-  private static final String DATETIME_TYPE = "dateTime";
+  //Restrictions that change the schema of the items of an array
+  private static final Set<String> ITEM_RESTRICTIONS = Set.of("dataHasValue", "maxCardinality", "minCardinality", "exactCardinality", "oneOf");
 
   final String name;
   final String description;
@@ -93,31 +96,17 @@ class MapperDataProperty {
   public Schema getSchemaByDataProperty() {
 	  
     if (this.type.isEmpty()) {
-      return (this.array) ? this.arraySchema(new StringSchema()) : this.nonArraySchema(new StringSchema());
+      return (this.array) ? this.arraySchema(DataType.STRING) : this.nonArraySchema(DataType.STRING.newSchema());
     } else if (this.type.size() > 1) {
     	return (this.array) ? this.composedSchema() : this.nonArraySchema(new Schema());
     }
 
-    String schemaType = getDataType(this.type.get(0));
-    if (schemaType == null) {
+    DataType dataType = DataType.get(this.type.get(0));
+    if (dataType == null) {
       logger.severe("property " + this.name + " type " + this.type);
     }
-    
-    switch (schemaType) {
-      case STRING_TYPE:
-        return (this.array) ? this.arraySchema(new StringSchema()) : this.nonArraySchema(new StringSchema());
-      case NUMBER_TYPE:
-        return (this.array) ? this.arraySchema(new NumberSchema()) : this.nonArraySchema(new NumberSchema());
-      case INTEGER_TYPE:
-        return (this.array) ? this.arraySchema(new IntegerSchema()) : this.nonArraySchema(new IntegerSchema());
-      case BOOLEAN_TYPE:
-        return (this.array) ? this.arraySchema(new BooleanSchema()) : this.nonArraySchema(new BooleanSchema());
-      case DATETIME_TYPE:
-          return (this.array) ? this.arraySchema(new DateTimeSchema()) : this.nonArraySchema(new DateTimeSchema());
-      default:
-        logger.warning("datatype mapping failed " + this.type.get(0));
-        return (this.array) ? this.arraySchema(new Schema()) : this.nonArraySchema(new Schema());
-    }
+
+    return (this.array) ? this.arraySchema(dataType) : this.nonArraySchema(dataType.newSchema());
   }
 
   /**
@@ -136,47 +125,39 @@ class MapperDataProperty {
 	  for (String restriction: this.restrictions.keySet()) { 
 		  String value = this.restrictions.get(restriction); 	  
 		  for (String item: this.type) {		  
-			  switch (this.getDataType(item)) {
-			  case STRING_TYPE:
-				  schema = new StringSchema();
-
+			  DataType dataType = DataType.get(item);
+			  String format = null;
+			  switch (dataType) {
+			  case STRING:
 				  if (item.equals("anyURI")) {
-            schema.format("uri");
+            format = "uri";
           } else if (item.equals("byte")) {
-            schema.format("byte");
+            format = "byte";
           }
 
 				  break;
-			  case NUMBER_TYPE:
-				  schema = new NumberSchema();
-
+			  case NUMBER:
 				  if (item.equals("float")) {
-            schema.format("double");
+            format = "double";
           } else if (item.equals("double")) {
-            schema.format("double");
+            format = "double";
           } else {
-            schema.format("number");
+            format = "number";
           }
           
 				  break;
-			  case INTEGER_TYPE:
-				  schema = new IntegerSchema();
-
+			  case INTEGER:
 				  if (item.equals("long")) {
-            schema.format("int64");
+            format = "int64";
           }
 					  
 				  break;
-			  case BOOLEAN_TYPE:
-				  schema = new BooleanSchema();
-				  break;
-			  case DATETIME_TYPE:
-				  schema = new DateTimeSchema();
-				  break;	       
 			  default:
-				  logger.warning("datatype mapping failed " + this.type.get(0));
-				  schema = new Schema();	  	
+				  break;
 			  }
+
+			  //The base schema is shared, unless it needs a format
+			  schema = (format == null) ? dataType.base : dataType.newSchema().format(format);
 			  
 			  switch (restriction) {
 			  case "unionOf":
@@ -216,7 +197,7 @@ class MapperDataProperty {
     return this.getSchemaRestrictions(base);
   }
 
-  private ArraySchema arraySchema(Schema base) {
+  private ArraySchema arraySchema(DataType dataType) {
 	  ArraySchema array = new ArraySchema();
 	  array.setDescription(this.description);
 
@@ -227,7 +208,7 @@ class MapperDataProperty {
     if (this.restrictions.containsKey("complementOf")) {
       Schema schema = new Schema();
       Schema complementOf = new Schema();
-      complementOf.setType(this.getDataType(this.type.get(0)));
+      complementOf.setType(dataType != null ? dataType.getType() : null);
       complementOf.setFormat(this.type.get(0));
       schema.setNot(complementOf);
       array.setNullable(this.nullable);
@@ -235,7 +216,9 @@ class MapperDataProperty {
       return array;
     }
 
-    base = this.getSchemaRestrictions(base);
+    //The items share the base schema of the type, unless a restriction changes it
+    boolean restricted = this.restrictions.keySet().stream().anyMatch(ITEM_RESTRICTIONS::contains);
+    Schema base = this.getSchemaRestrictions(restricted ? dataType.newSchema() : dataType.base);
 
     // Can this be done in a better way?
     Integer minItemsInteger = base.getMinItems();
@@ -1,7 +1,10 @@
 package edu.isi.oba;
 
+import edu.isi.oba.config.CONFIG_FLAG;
+
 import io.swagger.models.Method;
 import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.headers.Header;
 import io.swagger.v3.oas.models.media.*;
 import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.oas.models.parameters.PathParameter;
@@ -13,12 +16,21 @@ import io.swagger.v3.oas.models.security.SecurityRequirement;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.stream.Collectors;
 
 enum Cardinality {
-  SINGULAR, PLURAL
+  SINGULAR, PLURAL, COUNT, EXPORT, BULK
 }
 
 class MapperOperation {
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+  static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+  static final String N_TRIPLES_MEDIA_TYPE = "application/n-triples";
+  //Name of the function of sparql_operations.py that runs the operation in the generated server, instead of obasparql
+  static final String OPERATION_EXTENSION = "x-oba-operation";
+
+  private final Map<CONFIG_FLAG, Boolean> configFlags = new HashMap<>();
   private boolean auth;
   private String summary;
   private String description;
@@ -30,16 +42,24 @@ class MapperOperation {
   private final Cardinality cardinality;
   private final Schema schema;
   private final Operation operation;
+  private final List<String> objectProperties;
+  private final List<PropertyFilter> propertyFilters;
+  private final Schema componentSchema;
+  private String handler;
 
   public Operation getOperation() {
     return operation;
   }
 
-  public MapperOperation(String schemaName, String schemaURI, Method method, Cardinality cardinality, Boolean auth) {
+  public MapperOperation(MapperSchema mapperSchema, Method method, Cardinality cardinality, Boolean auth, Map<CONFIG_FLAG, Boolean> configFlags) {
+    this.configFlags.putAll(configFlags);
+    this.objectProperties = mapperSchema.getObjectPropertyNames();
+    this.propertyFilters = this.isEnabled(CONFIG_FLAG.PROPERTY_FILTERS) ? mapperSchema.getPropertyFilters() : Collections.emptyList();
     this.auth = auth;
     this.cardinality = cardinality;
-    this.schemaName = schemaName;
-    this.schemaURI = schemaURI;
+    this.schemaName = mapperSchema.name;
+    this.schemaURI = mapperSchema.getCls().getIRI().getIRIString();
+    this.componentSchema = mapperSchema.getSchema();
     String ref_text = "#/components/schemas/" + schemaName;
     schema = new Schema().$ref(ref_text);
 
@@ -86,6 +106,10 @@ class MapperOperation {
           .parameters(parameters)
           .responses(apiResponses);
 
+    if (handler != null) {
+      operation.addExtension(OPERATION_EXTENSION, handler);
+    }
+
     if (Set.of(Method.PATCH, Method.PUT, Method.POST).contains(method)) {
       operation.setRequestBody(requestBody);
     }
@@ -108,6 +132,19 @@ class MapperOperation {
               .required(false)
               .schema(new StringSchema()));
 
+    if (this.isEnabled(CONFIG_FLAG.EXPAND_REFERENCES) && !this.objectProperties.isEmpty()
+        && Set.of(Cardinality.SINGULAR, Cardinality.PLURAL).contains(cardinality)) {
+      //Return the referenced resources in the same response, instead of one request per reference
+      parameters.add(new QueryParameter()
+              .name("expand")
+              .description("Object properties whose values are returned as complete resources instead of references")
+              .required(false)
+              .style(Parameter.StyleEnum.FORM)
+              .explode(false)
+              .schema(new ArraySchema().items(new StringSchema()._enum(this.objectProperties))));
+      handler = cardinality == Cardinality.SINGULAR ? "get_resource" : "get_resources";
+    }
+
     switch (cardinality) {
       case PLURAL:
         summary = "List all instances of " + this.schemaName;
@@ -122,16 +159,45 @@ class MapperOperation {
                 .description(responseDescriptionOk)
                 .content(new Content().addMediaType("application/json", new MediaType().schema(schema)));
         apiResponses.addApiResponse("200", responseOk);
-        parameters.add(new QueryParameter()
-                .name("label")
-                .description("Filter by label")
-                .required(false)
-                .schema(new StringSchema()));
-        parameters.add(new QueryParameter()
-                .name("page")
-                .description("Page number")
-                .required(false)
-                .schema(new IntegerSchema()._default(1)));
+        if (this.isEnabled(CONFIG_FLAG.TOTAL_COUNT)) {
+          responseOk.addHeaderObject(TOTAL_COUNT_HEADER, new Header()
+                  .description("Number of instances that match the filters, in all the pages")
+                  .schema(new IntegerSchema()));
+          handler = "get_resources";
+        }
+        setFilterParameters();
+        if (!this.propertyFilters.isEmpty()) {
+          handler = "get_resources";
+        }
+        if (this.isEnabled(CONFIG_FLAG.CURSOR_PAGINATION)) {
+          //Keyset pagination: each page starts after the last item of the previous one, instead of an offset
+          parameters.add(new QueryParameter()
+                  .name("cursor")
+                  .description("Return the instances after this cursor (the " + NEXT_CURSOR_HEADER + " header of the previous page)")
+                  .required(false)
+                  .schema(new StringSchema()));
+          handler = "get_resources";
+          responseOk.addHeaderObject(NEXT_CURSOR_HEADER, new Header()
+                  .description("Cursor of the next page (the id of the last instance of this page). It is not sent with the last page")
+                  .schema(new StringSchema()));
+        } else {
+          parameters.add(new QueryParameter()
+                  .name("page")
+                  .description("Page number")
+                  .required(false)
+                  .schema(new IntegerSchema()._default(1)));
+        }
+        if (this.isEnabled(CONFIG_FLAG.BATCH_FETCH)) {
+          //Fetch several instances in one request (and one query), instead of one request per id
+          parameters.add(new QueryParameter()
+                  .name("ids")
+                  .description("Return only the instances with these ids (e.g. ids=a,b,c)")
+                  .required(false)
+                  .style(Parameter.StyleEnum.FORM)
+                  .explode(false)
+                  .schema(new ArraySchema().items(new StringSchema()).maxItems(200)));
+          handler = "get_resources";
+        }
         parameters.add(new QueryParameter()
                 .name("per_page")
                 .description("Items per page")
@@ -150,15 +216,100 @@ class MapperOperation {
                 .content(new Content().addMediaType("application/json", new MediaType().schema(this.schema)));
         apiResponses.addApiResponse("200", responseOk);
         break;
+      case COUNT:
+        summary = "Count the instances of " + this.schemaName;
+        description = "Gets the number of instances of " + this.schemaName +
+                " (more information in " + this.schemaURI + ")";
+        responseDescriptionOk = "Successful response - returns the number of instances of " + schemaName + ".";
+
+        //Set response
+        responseOk = new ApiResponse()
+                .description(responseDescriptionOk)
+                .content(new Content().addMediaType("application/json", new MediaType().schema(new IntegerSchema())))
+                .addHeaderObject(TOTAL_COUNT_HEADER, new Header()
+                        .description("Number of instances that match the filters")
+                        .schema(new IntegerSchema()));
+        apiResponses.addApiResponse("200", responseOk);
+        handler = "count_resources";
+        setFilterParameters();
+        break;
+      case EXPORT:
+        summary = "Export all instances of " + this.schemaName;
+        description = "Gets all instances of " + this.schemaName + " in one streamed response, without pagination" +
+                " (more information in " + this.schemaURI + ")";
+        responseDescriptionOk = "Successful response - returns the instances of " + schemaName +
+                ", one JSON object per line or as N-Triples.";
+
+        //Set response: one instance per line, so clients can read it while it is sent
+        responseOk = new ApiResponse()
+                .description(responseDescriptionOk)
+                .content(new Content()
+                        .addMediaType(NDJSON_MEDIA_TYPE, new MediaType().schema(this.schema))
+                        .addMediaType(N_TRIPLES_MEDIA_TYPE, new MediaType().schema(new StringSchema())));
+        apiResponses.addApiResponse("200", responseOk);
+        handler = "export_resources";
+        setFilterParameters();
+        break;
 
     }
   }
 
+  /**
+   * Filters of the list operations, which the count and export operations also apply
+   */
+  private void setFilterParameters() {
+    parameters.add(new QueryParameter()
+            .name("label")
+            .description("Filter by label")
+            .required(false)
+            .schema(new StringSchema()));
+    //Filters by the values of the data properties, applied by the list query
+    Set<String> names = parameters.stream().map(Parameter::getName).collect(Collectors.toSet());
+    this.propertyFilters.stream()
+            .flatMap(filter -> filter.getParameters().stream())
+            .filter(parameter -> !names.contains(parameter.getName()))
+            .forEach(parameters::add);
+  }
+
+  private boolean isEnabled(CONFIG_FLAG flag) {
+    return this.configFlags.getOrDefault(flag, false);
+  }
+
   private void setOperationPatch() {
-    // TODO: implement
+    String requestDescription = "The properties of the " + this.schemaName + " to be updated";
+
+    summary = "Update some properties of an existing " + this.schemaName;
+    description = "Updates only the properties in the request of an existing " + this.schemaName +
+                ", the other properties keep their values (more information in " + this.schemaURI + ")";
+
+    //Set request: any subset of the properties, so the required properties of the schema are not required.
+    //The properties are copied, the component schema is changed later (e.g. when interning the property schemas)
+    Schema partialSchema = this.schema;
+    if (this.componentSchema.getRequired() != null && !this.componentSchema.getRequired().isEmpty()) {
+      partialSchema = new ObjectSchema()
+              .description(this.componentSchema.getDescription())
+              .properties(new LinkedHashMap<>(this.componentSchema.getProperties()));
+    }
+    requestBody.setContent(new Content().addMediaType("application/json", new MediaType().schema(partialSchema)));
+    requestBody.setDescription(requestDescription);
+    handler = "patch_resource";
+
+    //Set the response
+    apiResponses
+            .addApiResponse("200", new ApiResponse()
+                    .content(new Content().addMediaType("application/json", new MediaType().schema(this.schema)))
+                    .description("Updated")
+            )
+            .addApiResponse("404", new ApiResponse()
+                    .description("Not Found"));
   }
 
   private void setOperationPost() {
+    if (cardinality == Cardinality.BULK) {
+      setOperationBulkPost();
+      return;
+    }
+
     String requestDescription = "Information about the " + this.schemaName + "to be created";
 
     //Edit global fields
@@ -179,6 +330,30 @@ class MapperOperation {
     );
   }
 
+  private void setOperationBulkPost() {
+    String requestDescription = "The instances of " + this.schemaName + " to be created";
+
+    //Edit global fields
+    summary = "Create several instances of " + this.schemaName;
+    description = "Create new instances of " + this.schemaName + " in one request, written in a few updates" +
+                " (more information in " + this.schemaURI + ")";
+
+    //Set request
+    ArraySchema schema = new ArraySchema();
+    schema.setItems(this.schema);
+    schema.setMinItems(1);
+    Content content = new Content().addMediaType("application/json", new MediaType().schema(schema));
+    requestBody.setContent(content);
+    requestBody.setDescription(requestDescription);
+    handler = "post_resources";
+
+    //Set the response
+    apiResponses.addApiResponse("201", new ApiResponse()
+            .content(content)
+            .description("Created")
+    );
+  }
+
   private void setOperationPut() {
     String requestDescription = "An old " + this.schemaName + " to be updated";
 
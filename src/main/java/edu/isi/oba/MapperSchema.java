@@ -11,16 +11,12 @@ import java.util.*;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
-import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
-import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
-import org.semanticweb.owlapi.search.EntitySearcher;
 import org.semanticweb.owlapi.util.IRIShortFormProvider;
 import org.semanticweb.owlapi.util.SimpleIRIShortFormProvider;
 
 class MapperSchema {
 
-    private final OWLReasoner reasoner;
+    private final OntologyIndex index;
     private final IRIShortFormProvider sfp = new SimpleIRIShortFormProvider();
     private final String type;
     private final OWLClass cls;
@@ -31,11 +27,13 @@ class MapperSchema {
     private Map<String, Schema> properties;
 	private List<String> required_properties;
 	private Map<IRI, List<String>> enums;
+    //IRIs of the properties of the schema, by property name
+    private final Map<String, IRI> propertyIRIs = new TreeMap<>();
+    private final Set<String> objectPropertyNames = new TreeSet<>();
     final String name;
     private final Map<IRI, String> schemaNames;
     private final Schema schema;
     private OWLOntology ontology_cls;
-    private OWLReasonerFactory reasonerFactory;
     public List<OWLClass> properties_range;
 
 	private final Map<CONFIG_FLAG, Boolean> configFlags = new HashMap<>();
@@ -63,7 +61,46 @@ class MapperSchema {
         return this.schema;
     }
 
+    /**
+     * Get the IRIs of the properties of the schema (the default properties are not included).
+     *
+     * @return A Map key: property name, value: property IRI
+     */
+    public Map<String, IRI> getPropertyIRIs() {
+        return this.propertyIRIs;
+    }
+
+    /**
+     * @return the names of the object properties of the schema, sorted
+     */
+    public List<String> getObjectPropertyNames() {
+        return new ArrayList<>(this.objectPropertyNames);
+    }
+
+    /**
+     * @return the filters of the instances of the schema by the values of its data properties, sorted by name.
+     * A filter whose parameters have the names of the parameters of a previous one is left out
+     */
+    public List<PropertyFilter> getPropertyFilters() {
+        List<PropertyFilter> filters = new ArrayList<>();
+        this.propertyIRIs.forEach((name, iri) -> {
+            Schema property = this.properties.get(name);
+            if (property != null && !this.objectPropertyNames.contains(name)) {
+                PropertyFilter filter = PropertyFilter.of(name, iri, property);
+                if (filter != null) {
+                    filters.add(filter);
+                }
+            }
+        });
+        return PropertyFilter.withoutCollisions(filters);
+    }
+
     public MapperSchema(List<OWLOntology> ontologies, OWLClass cls, String clsDescription, Map<IRI, String> schemaNames, OWLOntology class_ontology, Map<CONFIG_FLAG, Boolean> configFlags) {
+        this(ontologies, cls, clsDescription, schemaNames, class_ontology, configFlags, new OntologyIndex(ontologies));
+    }
+
+    public MapperSchema(List<OWLOntology> ontologies, OWLClass cls, String clsDescription, Map<IRI, String> schemaNames, OWLOntology class_ontology, Map<CONFIG_FLAG, Boolean> configFlags, OntologyIndex index) {
+        this.index = index;
         this.schemaNames = schemaNames;
 		this.configFlags.putAll(configFlags);
         this.cls = cls;
@@ -71,8 +108,6 @@ class MapperSchema {
         this.type = "object";
         this.ontologies = ontologies;
         this.ontology_cls = class_ontology;
-        this.reasonerFactory = new StructuralReasonerFactory();
-        this.reasoner = reasonerFactory.createReasoner(this.ontology_cls);
         this.properties_range = new ArrayList<>();
         this.propertiesFromObjectRestrictions_ranges = new HashMap<>();
         this.propertiesFromObjectRestrictions = new ArrayList<>();
@@ -109,7 +144,8 @@ class MapperSchema {
 				schema.not(complement);
 			}
 			schema.setType(this.type);
-			schema.setProperties(this.getProperties());
+			// Sort the properties by name, so the generated spec does not depend on the order the axioms were read in.
+			schema.setProperties(new TreeMap<>(this.getProperties()));
 
 			if (this.configFlags.containsKey(CONFIG_FLAG.REQUIRED_PROPERTIES_FROM_CARDINALITY) 
 				&& this.configFlags.get(CONFIG_FLAG.REQUIRED_PROPERTIES_FROM_CARDINALITY)) {
@@ -129,32 +165,6 @@ class MapperSchema {
         return schema;
     }
 
-    /**
-     * Check if the class cls is domain of the property dp
-     *
-     * @param cls class
-     * @param dp PropertyDomain
-     * @return true or false
-     */
-    private boolean checkDomainClass(OWLClass cls, OWLPropertyDomainAxiom dp) {
-        Set<OWLClass> superDomainClasses = this.reasoner.getSuperClasses(cls, false).getFlattened();
-        Set<OWLClass> domainClasses = dp.getDomain().getClassesInSignature();
-        for (OWLClass domainClass : domainClasses) {
-            if (domainClass.equals(cls)) {
-				return true;
-			}
-
-            //check super classes
-            for (OWLClass superClass : superDomainClasses) {
-                if (domainClass.equals(superClass)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-	
     /**
      * Obtain a list of Codegenproperty of a OWLClass
      *
@@ -166,76 +176,66 @@ class MapperSchema {
     	OWLClass owlThing = dataFactory.getOWLThing();
     	HashMap<String, String> propertyNameURI = new HashMap<>();
     	Map<String, Schema> properties = new HashMap<>();
-    	Set<OWLDataPropertyDomainAxiom> properties_class = new HashSet<>();
-    	Set<OWLFunctionalDataPropertyAxiom> functional;
-
-    	for (OWLOntology ontology: this.ontologies) {
-    		properties_class.addAll(ontology.getAxioms(AxiomType.DATA_PROPERTY_DOMAIN));
-		}
+    	for (OWLDataPropertyDomainAxiom dp : this.index.getDataPropertyDomainAxioms(this.cls, this.ontology_cls)) {
+    		for (OWLDataProperty odp : dp.getDataPropertiesInSignature()) {
+    			Boolean array = true;
+    			Boolean nullable = true;
+
+    			Boolean inspect = true;
+    			// If there are property restrictions from the Class we need to check if 
+    			// the data property has been previously analyzed on the getClassRestrictions function.
+    			// If the property was analyzed, we will change the value of inspect to false, otherwise 
+    			// the property will be inspected.
+    			if (!propertiesFromDataRestrictions.isEmpty()) {
+    				if (propertiesFromDataRestrictions.contains(odp)) {           				
+    					inspect = false;
+    				}    
+    			}
 
-    	for (OWLDataPropertyDomainAxiom dp : properties_class) {
-    		if (checkDomainClass(this.cls, dp)) {
-    			for (OWLDataProperty odp : dp.getDataPropertiesInSignature()) {
-    				Boolean array = true;
-    				Boolean nullable = true;
-    				Set<OWLDataPropertyRangeAxiom> ranges = new HashSet<>();
-
-    				Boolean inspect = true;
-    				// If there are property restrictions from the Class we need to check if 
-    				// the data property has been previously analyzed on the getClassRestrictions function.
-    				// If the property was analyzed, we will change the value of inspect to false, otherwise 
-    				// the property will be inspected.
-    				if (!propertiesFromDataRestrictions.isEmpty()) {
-    					if (propertiesFromDataRestrictions.contains(odp)) {           				
-    						inspect = false;
-    					}    
-    				}
+    			if (inspect) {
+					boolean isFunctional = this.index.isFunctional(odp);
+    				Set<OWLDataPropertyRangeAxiom> ranges = this.index.getDataPropertyRangeAxioms(odp);
 
-    				if (inspect) {
-						boolean isFunctional = EntitySearcher.isFunctional(odp, this.ontologies.stream());
+    				if (ranges.isEmpty()) {
+    					logger.warning("Property " + odp.getIRI() + " has range equals zero");
+					}
 
-    					for (OWLOntology ontology: this.ontologies) {
-    						ranges.addAll(ontology.getDataPropertyRangeAxioms(odp));
+    				String propertyName = this.sfp.getShortForm(odp.getIRI());
+    				String propertyURI = odp.getIRI().toString();
+    				propertyNameURI.put(propertyURI, propertyName);
+
+    				//obtain type using the range
+    				List<String> valuesFromDataRestrictions_ranges = new ArrayList<String>();
+    				Map<String,String> restrictionValues = new HashMap<String, String>();
+    				boolean oneOf = ranges.stream().anyMatch(propertyRangeAxiom -> propertyRangeAxiom.getRange() instanceof OWLDataOneOf);
+    				for (RestrictionVisitor restrictionVisitor : this.index.getRangeRestrictions(odp, ontology -> {
+    					RestrictionVisitor visitor = new RestrictionVisitor(this.cls, ontology, owlThing, propertyName);
+    					for (OWLDataPropertyRangeAxiom propertyRangeAxiom : ranges) {
+    						propertyRangeAxiom.getRange().accept(visitor);
     					}
-
-    					if (ranges.isEmpty()) {
-    						logger.warning("Property " + odp.getIRI() + " has range equals zero");
-						}
-
-    					String propertyName = this.sfp.getShortForm(odp.getIRI());
-    					String propertyURI = odp.getIRI().toString();
-    					propertyNameURI.put(propertyURI, propertyName);
-
-    					//obtain type using the range
-    					List<String> valuesFromDataRestrictions_ranges = new ArrayList<String>();
-    					Map<String,String> restrictionValues = new HashMap<String, String>();
-    					for (OWLOntology ontology: this.ontologies) {
-    						RestrictionVisitor restrictionVisitor = new RestrictionVisitor(this.cls, ontology, owlThing, propertyName);
-    						for (OWLDataPropertyRangeAxiom propertyRangeAxiom : ranges) {
-    							OWLDataRange ce = propertyRangeAxiom.getRange();
-    							ce.accept(restrictionVisitor);
-    							if (ce instanceof OWLDataOneOf) {   							
-    								valuesFromDataRestrictions_ranges  = restrictionVisitor.getValuesFromDataRestrictions_ranges();
-    							}    							
-    						}
-    						Map<String, Map<String,String>> restrictionsValuesFromClass = restrictionVisitor.getRestrictionsValuesFromClass();
-    						for (String j :  restrictionsValuesFromClass.keySet()) {     						
-    							if (j.equals(propertyName)) {
-    								restrictionValues = restrictionsValuesFromClass.get(j);
-    							}
-    						}          		    						
+    					return visitor;
+    				})) {
+    					if (oneOf) {
+    						valuesFromDataRestrictions_ranges  = restrictionVisitor.getValuesFromDataRestrictions_ranges();
     					}
+    					Map<String, Map<String,String>> restrictionsValuesFromClass = restrictionVisitor.getRestrictionsValuesFromClass();
+    					for (String j :  restrictionsValuesFromClass.keySet()) {     						
+    						if (j.equals(propertyName)) {
+    							restrictionValues = restrictionsValuesFromClass.get(j);
+    						}
+    					}          		    						
+    				}
 
-						List<String> propertyRanges = getCodeGenTypesByRangeData(ranges, odp);
-    					String propertyDescription = ObaUtils.getDescription(odp, this.ontology_cls, this.configFlags.get(CONFIG_FLAG.DEFAULT_DESCRIPTIONS));
-    					MapperDataProperty mapperProperty = new MapperDataProperty(propertyName, propertyDescription, isFunctional, restrictionValues, valuesFromDataRestrictions_ranges, propertyRanges, array, nullable);
-    					try {
-    						this.properties.put(mapperProperty.name, mapperProperty.getSchemaByDataProperty());
-    					} catch (Exception e) {
-    						e.printStackTrace();
-    					}
-    				}                
-    			}
+					List<String> propertyRanges = getCodeGenTypesByRangeData(ranges, odp);
+    				String propertyDescription = this.index.getDescription(odp, this.ontology_cls, this.configFlags.get(CONFIG_FLAG.DEFAULT_DESCRIPTIONS));
+    				MapperDataProperty mapperProperty = new MapperDataProperty(propertyName, propertyDescription, isFunctional, restrictionValues, valuesFromDataRestrictions_ranges, propertyRanges, array, nullable);
+    				try {
+    					this.properties.put(mapperProperty.name, mapperProperty.getSchemaByDataProperty());
+    					this.propertyIRIs.put(mapperProperty.name, odp.getIRI());
+    				} catch (Exception e) {
+    					e.printStackTrace();
+    				}
+    			}                
     		}
     	}
 
@@ -288,75 +288,66 @@ class MapperSchema {
         OWLDataFactory dataFactory = m.getOWLDataFactory();
         OWLClass owlThing = dataFactory.getOWLThing();
 
-        Set<OWLObjectPropertyDomainAxiom> properties_class = new HashSet<>();
-        Set<OWLFunctionalObjectPropertyAxiom> functional;
-        for (OWLOntology ontology: this.ontologies) {
-            properties_class.addAll(ontology.getAxioms(AxiomType.OBJECT_PROPERTY_DOMAIN));
-		}
-
         HashMap<String, String> propertyNameURI = new HashMap<>();
         Map<String, Schema> properties = new HashMap<>();
         logger.info("Parsing class " + this.cls.toString());
 
-        for (OWLObjectPropertyDomainAxiom dp : properties_class) {
-        	if (checkDomainClass(this.cls, dp)) {
-        		logger.info( "Parsing property " + dp.toString());
-        		for (OWLObjectProperty odp : dp.getObjectPropertiesInSignature()) {
-        			String propertyName = this.sfp.getShortForm(odp.getIRI());
-
-        			Boolean inspect = true;
-        			// If there are property restrictions from the Class we need to check if
-        			// the object property has been previously analyzed on the getClassRestrictions method.
-        			// If the property was analyzed, we will change the value of inspect to false, otherwise
-        			// the property will be inspected.
-        			if (!propertiesFromObjectRestrictions.isEmpty()) {
-        				if (propertiesFromObjectRestrictions.contains(odp)) {
-        					inspect = false;
-        				}
+        for (OWLObjectPropertyDomainAxiom dp : this.index.getObjectPropertyDomainAxioms(this.cls, this.ontology_cls)) {
+        	logger.info( "Parsing property " + dp.toString());
+        	for (OWLObjectProperty odp : dp.getObjectPropertiesInSignature()) {
+        		String propertyName = this.sfp.getShortForm(odp.getIRI());
+
+        		Boolean inspect = true;
+        		// If there are property restrictions from the Class we need to check if
+        		// the object property has been previously analyzed on the getClassRestrictions method.
+        		// If the property was analyzed, we will change the value of inspect to false, otherwise
+        		// the property will be inspected.
+        		if (!propertiesFromObjectRestrictions.isEmpty()) {
+        			if (propertiesFromObjectRestrictions.contains(odp)) {
+        				inspect = false;
         			}
+        		}
 
-        			if (inspect) {
-						boolean isFunctional = EntitySearcher.isFunctional(odp, this.ontologies.stream());
-
-        				Set<OWLObjectPropertyRangeAxiom> ranges = new HashSet<>();
-        				for (OWLOntology ontology: this.ontologies) {
-        					ranges.addAll(ontology.getObjectPropertyRangeAxioms(odp));
-        				}
+        		if (inspect) {
+					boolean isFunctional = this.index.isFunctional(odp);
+        			Set<OWLObjectPropertyRangeAxiom> ranges = this.index.getObjectPropertyRangeAxioms(odp);
 
-        				if (ranges.isEmpty()) {
-        					logger.warning("Property " + odp.getIRI() + " has range equals zero");
-						}
+        			if (ranges.isEmpty()) {
+        				logger.warning("Property " + odp.getIRI() + " has range equals zero");
+					}
 
-        				String propertyURI = odp.getIRI().toString();
-        				propertyNameURI.put(propertyURI, propertyName);
-        				List<String> propertyRanges = getCodeGenTypesByRangeObject(ranges, odp, owlThing);
+        			String propertyURI = odp.getIRI().toString();
+        			propertyNameURI.put(propertyURI, propertyName);
+        			List<String> propertyRanges = getCodeGenTypesByRangeObject(ranges, odp, owlThing);
 
-        				Map<String,String> restrictionValues = new HashMap<String, String>() ;
-        				for (OWLOntology ontology: this.ontologies) {
-        					RestrictionVisitor restrictionVisitor = new RestrictionVisitor(this.cls, ontology, owlThing, propertyName);
-        					for (OWLObjectPropertyRangeAxiom propertyRangeAxiom : ranges) {
-        						OWLClassExpression ce = propertyRangeAxiom.getRange();
-        						ce.accept(restrictionVisitor);
-        					}
-        					Map<String, Map<String,String>> restrictionsValuesFromClass = restrictionVisitor.getRestrictionsValuesFromClass();
-        					for (String j :  restrictionsValuesFromClass.keySet()) {
-        						if (j.equals(propertyName)) {
-        							restrictionValues=restrictionsValuesFromClass.get(j);
-        						}
+        			Map<String,String> restrictionValues = new HashMap<String, String>() ;
+        			for (RestrictionVisitor restrictionVisitor : this.index.getRangeRestrictions(odp, ontology -> {
+        				RestrictionVisitor visitor = new RestrictionVisitor(this.cls, ontology, owlThing, propertyName);
+        				for (OWLObjectPropertyRangeAxiom propertyRangeAxiom : ranges) {
+        					propertyRangeAxiom.getRange().accept(visitor);
+        				}
+        				return visitor;
+        			})) {
+        				Map<String, Map<String,String>> restrictionsValuesFromClass = restrictionVisitor.getRestrictionsValuesFromClass();
+        				for (String j :  restrictionsValuesFromClass.keySet()) {
+        					if (j.equals(propertyName)) {
+        						restrictionValues=restrictionsValuesFromClass.get(j);
         					}
-        					if (restrictionsValuesFromClass.isEmpty() && propertyRanges.size() > 1) {
-								propertyRanges.clear();
-							}
         				}
+        				if (restrictionsValuesFromClass.isEmpty() && propertyRanges.size() > 1) {
+							propertyRanges.clear();
+						}
+        			}
 
-        				String propertyDescription = ObaUtils.getDescription(odp, this.ontology_cls, this.configFlags.get(CONFIG_FLAG.DEFAULT_DESCRIPTIONS));
+        			String propertyDescription = this.index.getDescription(odp, this.ontology_cls, this.configFlags.get(CONFIG_FLAG.DEFAULT_DESCRIPTIONS));
 
-        				MapperObjectProperty mapperObjectProperty = new MapperObjectProperty(propertyName, propertyDescription, isFunctional, restrictionValues, propertyRanges);
-        				try {
-        					this.properties.put(mapperObjectProperty.name, mapperObjectProperty.getSchemaByObjectProperty());
-        				} catch (Exception e) {
-        					e.printStackTrace();
-        				}
+        			MapperObjectProperty mapperObjectProperty = new MapperObjectProperty(propertyName, propertyDescription, isFunctional, restrictionValues, propertyRanges);
+        			try {
+        				this.properties.put(mapperObjectProperty.name, mapperObjectProperty.getSchemaByObjectProperty());
+        				this.propertyIRIs.put(mapperObjectProperty.name, odp.getIRI());
+        				this.objectPropertyNames.add(mapperObjectProperty.name);
+        			} catch (Exception e) {
+        				e.printStackTrace();
         			}
         		}
         	}
@@ -424,8 +415,9 @@ class MapperSchema {
     	OWLDataFactory dataFactory = m.getOWLDataFactory();
     	OWLClass owlThing = dataFactory.getOWLThing();
 
+    	// Collect the restrictions of the class from all the ontologies with a single visitor
+    	final RestrictionVisitor restrictionVisitor = new RestrictionVisitor(analyzedClass, this.ontologies, owlThing, "", this.index.getRestrictionSummaries());
     	for (OWLOntology ontology: this.ontologies) {
-    		final RestrictionVisitor restrictionVisitor = new RestrictionVisitor(analyzedClass, ontology, owlThing, "");
     		for (OWLSubClassOfAxiom ax: ontology.getSubClassAxiomsForSubClass(analyzedClass)) {
     			OWLClassExpression superCls = ax.getSuperClass();
     			// Ask our superclass to accept a visit from the RestrictionVisitor
@@ -438,126 +430,54 @@ class MapperSchema {
 			ontology.equivalentClassesAxioms(analyzedClass).forEach((eqClsAx) -> {
 				eqClsAx.accept(restrictionVisitor);
 			});
+		}
 
-			this.enums = restrictionVisitor.getAllEnums();
-			this.propertiesFromObjectRestrictions = restrictionVisitor.getPropertiesFromObjectRestrictions();
-			this.propertiesFromObjectRestrictions_ranges  = restrictionVisitor.getPropertiesFromObjectRestrictions_ranges();
-			this.propertiesFromDataRestrictions = restrictionVisitor.getPropertiesFromDataRestrictions();
-			this.propertiesFromDataRestrictions_ranges  = restrictionVisitor.getPropertiesFromDataRestrictions_ranges();
-			Map<String, Map<String,String>> restrictionsValuesFromClass = restrictionVisitor.getRestrictionsValuesFromClass();
-
-			if (!restrictionsValuesFromClass.isEmpty()) {
-				// When the restriction is a ObjectComplementOf it doesn't have a object property,
-				// thus we need to set its value at the setSchema function
-				if (restrictionsValuesFromClass.containsKey("complementOf") && restrictionsValuesFromClass.size() == 1) {
-					for (String j: restrictionsValuesFromClass.keySet()) {
-						Map<String,String> restrictionValues = restrictionsValuesFromClass.get(j);
-						for (String restriction:  restrictionValues.keySet()) {
-							this.complementOf = restrictionValues.get(restriction);
-						}
-					}
-				} else {
-					for (OWLObjectProperty op: this.propertiesFromObjectRestrictions) {
-						boolean isFunctional = EntitySearcher.isFunctional(op, this.ontologies.stream());
-
-						MapperObjectProperty mapperObjectProperty;
-						String propertyDescription = ObaUtils.getDescription(op, this.ontology_cls, this.configFlags.get(CONFIG_FLAG.DEFAULT_DESCRIPTIONS));
-						if (!this.propertiesFromObjectRestrictions_ranges.isEmpty()) {
-							List<String> rangesOP = this.propertiesFromObjectRestrictions_ranges.get(this.sfp.getShortForm(op.getIRI()));
-							for (String j : restrictionsValuesFromClass.keySet()) {
-								Map<String, String> restrictionValues = restrictionsValuesFromClass.get(j);
-								if (j.equals(this.sfp.getShortForm(op.getIRI()))) {
-									int exactCardinality = -1;
-									int minCardinality = -1;
-									int maxCardinality = -1;
-
-									if (rangesOP != null && rangesOP.get(0).equals("defaultValue")) {
-										mapperObjectProperty = new MapperObjectProperty(this.sfp.getShortForm(op.getIRI()), propertyDescription, isFunctional, restrictionValues, rangesOP, false, true);
-									} else {
-										String exactCardinalityStr = restrictionValues.get("exactCardinality");
-										exactCardinalityStr = ((exactCardinalityStr == null || exactCardinalityStr.isBlank()) ? "-1" : exactCardinalityStr);
-										exactCardinality = Integer.parseInt(exactCardinalityStr);
-
-										String minCardinalityStr = restrictionValues.get("minCardinality");
-										minCardinalityStr = ((minCardinalityStr == null || minCardinalityStr.isBlank()) ? "-1" : minCardinalityStr);
-										minCardinality = Integer.parseInt(minCardinalityStr);
-
-										String maxCardinalityStr = restrictionValues.get("maxCardinality");
-										maxCardinalityStr = ((maxCardinalityStr == null || maxCardinalityStr.isBlank()) ? "-1" : maxCardinalityStr);
-										maxCardinality = Integer.parseInt(maxCardinalityStr);
-
-										// If cardinality is present and allows for multiple values and it is not functional,
-										// then this is an array.
-										boolean isArray = !isFunctional
-															&& (exactCardinality > 1
-															|| minCardinality > 1
-															|| maxCardinality > 1);
-										
-										// If config flag to generate arrays is set, use it to override current setting.
-										isArray |= (this.configFlags.containsKey(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS) && this.configFlags.get(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS));
-
-										// If cardinality is exactly 1 OR a minimum of 1, then not nullable.
-										boolean isNullable = (exactCardinality == -1 && minCardinality == -1) ? true : exactCardinality != 1 && minCardinality < 1;
-
-										mapperObjectProperty = new MapperObjectProperty(this.sfp.getShortForm(op.getIRI()), propertyDescription, isFunctional, restrictionValues, rangesOP, isArray, isNullable);
-									}
-									
-									try {
-										Schema opSchema = mapperObjectProperty.getSchemaByObjectProperty();
-
-										boolean is_required = false;
-
-										// If cardinality is exactly 1, then we can remove the min/max property constraints
-										// and set the property to be required for the class.
-										if (exactCardinality == 1 || (minCardinality == 1 && maxCardinality == 1)) {
-											if (this.configFlags.containsKey(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS) && !this.configFlags.get(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS)) {
-												opSchema.setMinItems(null);
-												opSchema.setMaxItems(null);
-											}
-											
-											is_required = true;
-										}
-
-										// If cardinality minimum is 1, keep the min/max property constraints
-										// and set the property to be required for the class.
-										if (minCardinality > 0) {
-											is_required = true;
-										}
-
-										if (is_required) {
-											this.required_properties.add(mapperObjectProperty.name);
-										}
-
-										this.properties.put(mapperObjectProperty.name, opSchema);
-									} catch (Exception e) {
-										logger.warning("Error when parsing object property "+mapperObjectProperty.name);
-									}
-								}
-							}
-						}
+		this.enums = restrictionVisitor.getAllEnums();
+		this.propertiesFromObjectRestrictions = restrictionVisitor.getPropertiesFromObjectRestrictions();
+		this.propertiesFromObjectRestrictions_ranges  = restrictionVisitor.getPropertiesFromObjectRestrictions_ranges();
+		this.propertiesFromDataRestrictions = restrictionVisitor.getPropertiesFromDataRestrictions();
+		this.propertiesFromDataRestrictions_ranges  = restrictionVisitor.getPropertiesFromDataRestrictions_ranges();
+		Map<String, Map<String,String>> restrictionsValuesFromClass = restrictionVisitor.getRestrictionsValuesFromClass();
+
+		if (!restrictionsValuesFromClass.isEmpty()) {
+			// When the restriction is a ObjectComplementOf it doesn't have a object property,
+			// thus we need to set its value at the setSchema function
+			if (restrictionsValuesFromClass.containsKey("complementOf") && restrictionsValuesFromClass.size() == 1) {
+				for (String j: restrictionsValuesFromClass.keySet()) {
+					Map<String,String> restrictionValues = restrictionsValuesFromClass.get(j);
+					for (String restriction:  restrictionValues.keySet()) {
+						this.complementOf = restrictionValues.get(restriction);
 					}
-
-					for (OWLDataProperty dp: this.propertiesFromDataRestrictions) {
-						boolean isFunctional = EntitySearcher.isFunctional(dp, this.ontologies.stream());
-
-						List<String> valuesFromDataRestrictions_ranges = new ArrayList<>();
-						String propertyDescription = ObaUtils.getDescription(dp, this.ontology_cls, this.configFlags.get(CONFIG_FLAG.DEFAULT_DESCRIPTIONS));
-						if (!this.propertiesFromDataRestrictions_ranges.isEmpty()) {
-							List<String> rangesDP = this.propertiesFromDataRestrictions_ranges.get(this.sfp.getShortForm(dp.getIRI()));
-							for (String j: restrictionsValuesFromClass.keySet()) {
-								Map<String, String> restrictionValues = restrictionsValuesFromClass.get(j);
-								if (j.equals(this.sfp.getShortForm(dp.getIRI()))) {
+				}
+			} else {
+				for (OWLObjectProperty op: this.propertiesFromObjectRestrictions) {
+					boolean isFunctional = this.index.isFunctional(op);
+
+					MapperObjectProperty mapperObjectProperty;
+					String propertyDescription = this.index.getDescription(op, this.ontology_cls, this.configFlags.get(CONFIG_FLAG.DEFAULT_DESCRIPTIONS));
+					if (!this.propertiesFromObjectRestrictions_ranges.isEmpty()) {
+						List<String> rangesOP = this.propertiesFromObjectRestrictions_ranges.get(this.sfp.getShortForm(op.getIRI()));
+						for (String j : restrictionsValuesFromClass.keySet()) {
+							Map<String, String> restrictionValues = restrictionsValuesFromClass.get(j);
+							if (j.equals(this.sfp.getShortForm(op.getIRI()))) {
+								int exactCardinality = -1;
+								int minCardinality = -1;
+								int maxCardinality = -1;
+
+								if (rangesOP != null && rangesOP.get(0).equals("defaultValue")) {
+									mapperObjectProperty = new MapperObjectProperty(this.sfp.getShortForm(op.getIRI()), propertyDescription, isFunctional, restrictionValues, rangesOP, false, true);
+								} else {
 									String exactCardinalityStr = restrictionValues.get("exactCardinality");
 									exactCardinalityStr = ((exactCardinalityStr == null || exactCardinalityStr.isBlank()) ? "-1" : exactCardinalityStr);
-									int exactCardinality = Integer.parseInt(exactCardinalityStr);
+									exactCardinality = Integer.parseInt(exactCardinalityStr);
 
 									String minCardinalityStr = restrictionValues.get("minCardinality");
 									minCardinalityStr = ((minCardinalityStr == null || minCardinalityStr.isBlank()) ? "-1" : minCardinalityStr);
-									int minCardinality = Integer.parseInt(minCardinalityStr);
+									minCardinality = Integer.parseInt(minCardinalityStr);
 
 									String maxCardinalityStr = restrictionValues.get("maxCardinality");
 									maxCardinalityStr = ((maxCardinalityStr == null || maxCardinalityStr.isBlank()) ? "-1" : maxCardinalityStr);
-									int maxCardinality = Integer.parseInt(maxCardinalityStr);
+									maxCardinality = Integer.parseInt(maxCardinalityStr);
 
 									// If cardinality is present and allows for multiple values and it is not functional,
 									// then this is an array.
@@ -568,50 +488,126 @@ class MapperSchema {
 									
 									// If config flag to generate arrays is set, use it to override current setting.
 									isArray |= (this.configFlags.containsKey(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS) && this.configFlags.get(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS));
-									
+
 									// If cardinality is exactly 1 OR a minimum of 1, then not nullable.
 									boolean isNullable = (exactCardinality == -1 && minCardinality == -1) ? true : exactCardinality != 1 && minCardinality < 1;
 
-									MapperDataProperty mapperDataProperty = new MapperDataProperty(this.sfp.getShortForm(dp.getIRI()), propertyDescription, isFunctional, restrictionValues, valuesFromDataRestrictions_ranges, rangesDP, isArray, isNullable);
-									try {
-										Schema dpSchema = mapperDataProperty.getSchemaByDataProperty();
+									mapperObjectProperty = new MapperObjectProperty(this.sfp.getShortForm(op.getIRI()), propertyDescription, isFunctional, restrictionValues, rangesOP, isArray, isNullable);
+								}
+								
+								try {
+									Schema opSchema = mapperObjectProperty.getSchemaByObjectProperty();
+
+									boolean is_required = false;
+
+									// If cardinality is exactly 1, then we can remove the min/max property constraints
+									// and set the property to be required for the class.
+									if (exactCardinality == 1 || (minCardinality == 1 && maxCardinality == 1)) {
+										if (this.configFlags.containsKey(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS) && !this.configFlags.get(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS)) {
+											opSchema.setMinItems(null);
+											opSchema.setMaxItems(null);
+										}
+										
+										is_required = true;
+									}
 
-										boolean is_required = false;
+									// If cardinality minimum is 1, keep the min/max property constraints
+									// and set the property to be required for the class.
+									if (minCardinality > 0) {
+										is_required = true;
+									}
 
-										// If cardinality is exactly 1, then we can remove the min/max property constraints
-										// and set the property to be required for the class.
-										if (exactCardinality == 1 || (minCardinality == 1 && maxCardinality == 1)) {
-											if (this.configFlags.containsKey(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS) && !this.configFlags.get(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS)) {
-												dpSchema.setMinItems(null);
-												dpSchema.setMaxItems(null);
-											}
+									if (is_required) {
+										this.required_properties.add(mapperObjectProperty.name);
+									}
 
-											is_required = true;
-										}
+									this.properties.put(mapperObjectProperty.name, opSchema);
+									this.propertyIRIs.put(mapperObjectProperty.name, op.getIRI());
+									this.objectPropertyNames.add(mapperObjectProperty.name);
+								} catch (Exception e) {
+									logger.warning("Error when parsing object property "+mapperObjectProperty.name);
+								}
+							}
+						}
+					}
+				}
 
-										// If cardinality minimum is 1, keep the min/max property constraints
-										// and set the property to be required for the class.
-										if (minCardinality > 0) {
-											is_required = true;
+				for (OWLDataProperty dp: this.propertiesFromDataRestrictions) {
+					boolean isFunctional = this.index.isFunctional(dp);
+
+					List<String> valuesFromDataRestrictions_ranges = new ArrayList<>();
+					String propertyDescription = this.index.getDescription(dp, this.ontology_cls, this.configFlags.get(CONFIG_FLAG.DEFAULT_DESCRIPTIONS));
+					if (!this.propertiesFromDataRestrictions_ranges.isEmpty()) {
+						List<String> rangesDP = this.propertiesFromDataRestrictions_ranges.get(this.sfp.getShortForm(dp.getIRI()));
+						for (String j: restrictionsValuesFromClass.keySet()) {
+							Map<String, String> restrictionValues = restrictionsValuesFromClass.get(j);
+							if (j.equals(this.sfp.getShortForm(dp.getIRI()))) {
+								String exactCardinalityStr = restrictionValues.get("exactCardinality");
+								exactCardinalityStr = ((exactCardinalityStr == null || exactCardinalityStr.isBlank()) ? "-1" : exactCardinalityStr);
+								int exactCardinality = Integer.parseInt(exactCardinalityStr);
+
+								String minCardinalityStr = restrictionValues.get("minCardinality");
+								minCardinalityStr = ((minCardinalityStr == null || minCardinalityStr.isBlank()) ? "-1" : minCardinalityStr);
+								int minCardinality = Integer.parseInt(minCardinalityStr);
+
+								String maxCardinalityStr = restrictionValues.get("maxCardinality");
+								maxCardinalityStr = ((maxCardinalityStr == null || maxCardinalityStr.isBlank()) ? "-1" : maxCardinalityStr);
+								int maxCardinality = Integer.parseInt(maxCardinalityStr);
+
+								// If cardinality is present and allows for multiple values and it is not functional,
+								// then this is an array.
+								boolean isArray = !isFunctional
+													&& (exactCardinality > 1
+													|| minCardinality > 1
+													|| maxCardinality > 1);
+								
+								// If config flag to generate arrays is set, use it to override current setting.
+								isArray |= (this.configFlags.containsKey(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS) && this.configFlags.get(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS));
+								
+								// If cardinality is exactly 1 OR a minimum of 1, then not nullable.
+								boolean isNullable = (exactCardinality == -1 && minCardinality == -1) ? true : exactCardinality != 1 && minCardinality < 1;
+
+								MapperDataProperty mapperDataProperty = new MapperDataProperty(this.sfp.getShortForm(dp.getIRI()), propertyDescription, isFunctional, restrictionValues, valuesFromDataRestrictions_ranges, rangesDP, isArray, isNullable);
+								try {
+									Schema dpSchema = mapperDataProperty.getSchemaByDataProperty();
+
+									boolean is_required = false;
+
+									// If cardinality is exactly 1, then we can remove the min/max property constraints
+									// and set the property to be required for the class.
+									if (exactCardinality == 1 || (minCardinality == 1 && maxCardinality == 1)) {
+										if (this.configFlags.containsKey(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS) && !this.configFlags.get(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS)) {
+											dpSchema.setMinItems(null);
+											dpSchema.setMaxItems(null);
 										}
 
-										if (is_required) {
-											this.required_properties.add(mapperDataProperty.name);
-										}
+										is_required = true;
+									}
+
+									// If cardinality minimum is 1, keep the min/max property constraints
+									// and set the property to be required for the class.
+									if (minCardinality > 0) {
+										is_required = true;
+									}
 
-										this.properties.put(mapperDataProperty.name, dpSchema);
-									} catch (Exception e) {
-										logger.warning("Error when processing data property " + mapperDataProperty.name);
+									if (is_required) {
+										this.required_properties.add(mapperDataProperty.name);
 									}
+
+									this.properties.put(mapperDataProperty.name, dpSchema);
+									this.propertyIRIs.put(mapperDataProperty.name, dp.getIRI());
+								} catch (Exception e) {
+									logger.warning("Error when processing data property " + mapperDataProperty.name);
 								}
 							}
 						}
 					}
 				}
 			}
+		}
 
-			this.properties = setProperties();
-    	}
+		// Then the properties of the domains that were not analyzed from the restrictions
+		this.properties = setProperties();
     	
 		if (this.configFlags.get(CONFIG_FLAG.DEFAULT_PROPERTIES)) {
 			this.properties.putAll(this.getDefaultProperties());
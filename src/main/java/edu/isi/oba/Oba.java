@@ -9,16 +9,21 @@ import java.io.*;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
-import org.json.JSONObject;
 
 class Oba {
   public static final String SERVERS_ZIP = "/servers.zip";
   public static final String SERVERS_DIRECTORY = "servers";
+  public static final int STAGE_THREADS = 3;
   static Logger logger = null;
   public enum LANGUAGE {
     PYTHON_FLASK
@@ -69,44 +74,80 @@ class Oba {
       config_data.setAuth(new AuthConfig());
     }
 
+    ValidationMode validation = config_data.getValidation_mode();
+    if (validation == null) {
+      logger.severe("Unknown validation mode " + config_data.getValidation() + ". Use off, fast or full");
+      System.exit(1);
+    }
+
+    YamlConfig config = config_data;
+    ExecutorService executor = Executors.newFixedThreadPool(STAGE_THREADS);
     try {
-        Mapper mapper = new Mapper(config_data);
-        mapper.createSchemas(destination_dir);
-
-        LinkedHashMap<String, PathItem> custom_paths = config_data.getCustom_paths();
-        OpenAPI openapi_base = config_data.getOpenapi();
-        String custom_queries_dir = config_data.getCustom_queries_directory();
-
-        //copy base project
-        ObaUtils.unZipIt(Oba.SERVERS_ZIP, destination_dir);
-        //get schema and paths
-        generate_openapi_spec(openapi_base, mapper, destination_dir, custom_paths);
-        generate_openapi_template(mapper, destination_dir, config_data, selected_language);
-        generate_context(config_data, destination_dir);
-        copy_custom_queries(custom_queries_dir, destination_dir);
+        Mapper mapper = new Mapper(config);
+
+        LinkedHashMap<String, PathItem> custom_paths = config.getCustom_paths();
+        OpenAPI openapi_base = config.getOpenapi();
+        String custom_queries_dir = config.getCustom_queries_directory();
+
+        //copying the base project and the custom queries don't need the schemas
+        CompletableFuture<Void> base_project = CompletableFuture.runAsync(() -> ObaUtils.unZipIt(Oba.SERVERS_ZIP, destination_dir), executor);
+        CompletableFuture<Void> custom_queries = CompletableFuture.runAsync(() -> copy_custom_queries(custom_queries_dir, destination_dir), executor);
+        CompletableFuture<Void> schemas = CompletableFuture.runAsync(() -> mapper.createSchemas(destination_dir), executor);
+        //the context only needs the loaded ontologies
+        CompletableFuture<Void> context = base_project.thenRunAsync(() -> generate_context(mapper, destination_dir), executor);
+        //get schema and paths. The server template is only generated once the specification is valid
+        CompletableFuture<Serializer> spec = CompletableFuture.allOf(schemas, base_project)
+                .thenApplyAsync(ignored -> call(() -> generate_openapi_spec(openapi_base, mapper, destination_dir, custom_paths, config.getStreaming_serialization(), validation)), executor);
+        CompletableFuture<Void> spec_validation = spec
+                .thenAcceptAsync(serializer -> stage(() -> validate_openapi_spec(serializer, mapper, validation)).run(), executor);
+        CompletableFuture<Void> server = spec_validation
+                .thenRunAsync(stage(() -> generate_openapi_template(mapper, destination_dir, config, selected_language)), executor);
+
+        CompletableFuture.allOf(custom_queries, context, spec_validation, server).join();
         logger.info("OBA finished successfully. Output can be found at: " + destination_dir);
     } catch (Exception e) {
-        logger.severe("Error while creating the API specification: " + e.getLocalizedMessage());
-        e.printStackTrace();
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        logger.severe("Error while creating the API specification: " + cause.getLocalizedMessage());
+        cause.printStackTrace();
         System.exit(1);
+    } finally {
+        executor.shutdown();
     }
   }
-  
-  private static void generate_context(YamlConfig config_data, String destination_dir) {
-    List<String> ontologies = config_data.getOntologies();
-    JSONObject context_json_object = null;
-    JSONObject context_json_object_class = null;
+
+  /**
+   * A stage of the pipeline that may throw checked exceptions
+   */
+  private interface Stage {
+    void run() throws Exception;
+  }
+
+  private static Runnable stage(Stage stage) {
+    return () -> {
+      try {
+        stage.run();
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    };
+  }
+
+  private static <T> T call(Callable<T> stage) {
     try {
-      context_json_object = ObaUtils.generate_context_file(ontologies.toArray(new String[0]), false);
-      context_json_object_class = ObaUtils.generate_context_file(ontologies.toArray(new String[0]), true);
+      return stage.call();
     } catch (Exception e) {
-      e.printStackTrace();
+      throw new CompletionException(e);
     }
+  }
+
+  private static void generate_context(Mapper mapper, String destination_dir) {
+    //both contexts are built in one pass over the ontologies already loaded by the mapper
+    ContextGenerator generator = new ContextGenerator(mapper.ontologies);
     String file_path = destination_dir + File.separator + "servers" + File.separator + "context.json";
     String file_path_class = destination_dir + File.separator + "servers" + File.separator + "context_class.json";
     try {
-        ObaUtils.write_file(file_path, context_json_object.toString(4));
-        ObaUtils.write_file(file_path_class, context_json_object_class.toString(4));
+        ObaUtils.write_file(file_path, generator.getContext().toString(4));
+        ObaUtils.write_file(file_path_class, generator.getClassContext().toString(4));
     } catch(Exception e) {
         logger.severe("Could not generate the context files: "+e.getMessage());
     }
@@ -136,13 +177,22 @@ class Oba {
 
   }
 
-  private static void generate_openapi_spec(OpenAPI openapi_base,
+  private static Serializer generate_openapi_spec(OpenAPI openapi_base,
                                             Mapper mapper,
                                             String dir,
-                                            LinkedHashMap<String, PathItem> custom_paths
+                                            LinkedHashMap<String, PathItem> custom_paths,
+                                            Boolean streaming,
+                                            ValidationMode validation
                                             ) throws Exception {
     String destinationProjectDirectory = dir + File.separator + Oba.SERVERS_DIRECTORY;
     Path destinationProject = Paths.get(destinationProjectDirectory);
-    new Serializer(mapper, destinationProject, openapi_base, custom_paths);
+    return new Serializer(mapper, destinationProject, openapi_base, custom_paths, streaming, validation);
+  }
+
+  private static void validate_openapi_spec(Serializer serializer, Mapper mapper, ValidationMode validation) throws Exception {
+    //the full validation is done by the Serializer, since it parses the written file
+    if (validation == ValidationMode.FAST) {
+      new SpecValidator(serializer.openAPI, mapper.getMappedSchemaNames()).validate();
+    }
   }
 }
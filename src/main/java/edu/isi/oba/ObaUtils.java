@@ -14,6 +14,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -22,11 +23,14 @@ import org.apache.commons.cli.*;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.search.EntitySearcher;
 
 import org.yaml.snakeyaml.LoaderOptions;
@@ -138,9 +142,9 @@ public class ObaUtils {
         //Check if sourceFolder is a directory or file
         //If sourceFolder is file; then copy the file directly to new location
         if (sourceFolder.isDirectory()) {
-            //Verify if destinationFolder is already present; If not then create it
+            //Verify if destinationFolder is already present; If not then create it (and its parents)
             if (!destinationFolder.exists()) {
-                destinationFolder.mkdir();
+                destinationFolder.mkdirs();
                 System.out.println("Directory created :: " + destinationFolder);
             }
 
@@ -231,79 +235,20 @@ public class ObaUtils {
         return mergedJSON;
     }
 
-    public static JSONObject generate_context_file(String[] ontologies, Boolean only_classes) throws Exception {
-        JSONObject[] jsons = new JSONObject[ontologies.length];
-        for (int i = 0; i < ontologies.length; i++) {
-            try {
-                jsons[i] = run_owl_jsonld(ontologies[i], only_classes);
-            } catch (IOException e) {
-                //e.printStackTrace();
-                logger.severe("One of the ontologies did not generate the context file: " +e.getMessage());
-                return null;
-            } catch (InterruptedException e) {
-                logger.severe("One of the ontologies did not generate the context file: " +e.getMessage());
-                //e.printStackTrace();
-                return null;
-            }
-        }
-        return ObaUtils.concat_json_common_key(jsons, "@context");
-    }
-
     /**
-     * Method to execute OWL2JSONLD
-     * @param ontology_file file path of the ontology to load
-     * @param only_classes
-     * @return JSON object with the context of the ontology
-     * @throws Exception 
+     * Generate the JSON-LD context of a set of ontology files
+     * @param ontologies file paths of the ontologies to load
+     * @param only_classes if true, only the classes are included in the context
+     * @return JSON object with the context of the ontologies
+     * @throws OWLOntologyCreationException if one of the ontologies can't be loaded
      */
-    private static JSONObject run_owl_jsonld(String ontology_file, Boolean only_classes) throws Exception {
-        ontology_file = new File(ontology_file).toURI().toString();
-        String owl2jsonld = "/owl2jsonld-0.3.0-SNAPSHOT-standalone.jar";
-        InputStream owl2_jar = ObaUtils.class.getResourceAsStream(owl2jsonld);
-        File tempFile = File.createTempFile("oba", "jar");
-        copy(owl2_jar,tempFile);
-        Runtime rt = Runtime.getRuntime();
-        String[] cmdarray = new String[0];
-
-        if (only_classes) {
-            cmdarray = new String[]{"java", "-jar", tempFile.getPath(), "-c", ontology_file};
-        }
-        else {
-            cmdarray = new String[]{"java", "-jar", tempFile.getPath(), ontology_file};
-
-        }
-        Process proc = rt.exec(cmdarray);
-
-        BufferedReader stdInput = new BufferedReader(new
-                InputStreamReader(proc.getInputStream()));
-
-        BufferedReader stdError = new BufferedReader(new
-                InputStreamReader(proc.getErrorStream()));
-
-        String s = null;
-        StringBuilder result = new StringBuilder();
-        while ((s = stdInput.readLine()) != null) {
-            result.append(s);
-        }
-        if (result != null && !result.toString().isEmpty()){
-            JSONObject json = new JSONObject(result.toString());
-            //TODO: This is a hack to remove
-            //     "": {"@id": "http://dbpedia.org/ontology/"}
-            //temp_json is a reference to json
-            JSONObject temp_json = (JSONObject) json.get("@context");
-
-            if (!temp_json.isNull("")) {
-                logger.warning("Generating of context.json - Ignoring the class " + temp_json.get("") + ": Name is empty.");
-                temp_json.remove("");
-            }
-            return json;
-        }
-        while ((s = stdError.readLine()) != null) {
-            logger.severe(s);
+    public static JSONObject generate_context_file(String[] ontologies, Boolean only_classes) throws OWLOntologyCreationException {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        for (String ontology : ontologies) {
+            manager.loadOntologyFromOntologyDocument(new File(ontology));
         }
-
-        throw new IOException("no data");
-
+        ContextGenerator generator = new ContextGenerator(manager.ontologies().collect(Collectors.toList()));
+        return only_classes ? generator.getClassContext() : generator.getContext();
     }
 
     /**
@@ -0,0 +1,214 @@
+package edu.isi.oba;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+/**
+ * Lookup tables computed once over all the loaded ontologies and shared by every MapperSchema,
+ * so that mapping a class does not need to rescan every axiom of every ontology.
+ */
+class OntologyIndex {
+    private final List<OWLOntology> ontologies;
+    private final Map<OWLOntology, ClassHierarchy> hierarchies = new ConcurrentHashMap<>();
+    private final Map<OWLClass, Set<OWLDataPropertyDomainAxiom>> dataPropertyDomains = new HashMap<>();
+    private final Map<OWLClass, Set<OWLObjectPropertyDomainAxiom>> objectPropertyDomains = new HashMap<>();
+    private final Map<OWLOntology, Map<IRI, String>> descriptions = new HashMap<>();
+    private final Set<OWLPropertyExpression> functionalProperties = new HashSet<>();
+    private final Map<OWLDataPropertyExpression, Set<OWLDataPropertyRangeAxiom>> dataPropertyRanges = new HashMap<>();
+    private final Map<OWLObjectPropertyExpression, Set<OWLObjectPropertyRangeAxiom>> objectPropertyRanges = new HashMap<>();
+    private final Map<OWLProperty, List<RestrictionVisitor>> rangeRestrictions = new ConcurrentHashMap<>();
+    private final Map<OWLClass, RestrictionVisitor> restrictionSummaries = new ConcurrentHashMap<>();
+
+    public OntologyIndex(List<OWLOntology> ontologies) {
+        this.ontologies = ontologies;
+        for (OWLOntology ontology : this.ontologies) {
+            for (OWLDataPropertyDomainAxiom axiom : ontology.getAxioms(AxiomType.DATA_PROPERTY_DOMAIN)) {
+                for (OWLClass domainClass : axiom.getDomain().getClassesInSignature()) {
+                    this.dataPropertyDomains.computeIfAbsent(domainClass, k -> new LinkedHashSet<>()).add(axiom);
+                }
+            }
+
+            for (OWLObjectPropertyDomainAxiom axiom : ontology.getAxioms(AxiomType.OBJECT_PROPERTY_DOMAIN)) {
+                for (OWLClass domainClass : axiom.getDomain().getClassesInSignature()) {
+                    this.objectPropertyDomains.computeIfAbsent(domainClass, k -> new LinkedHashSet<>()).add(axiom);
+                }
+            }
+
+            for (OWLFunctionalDataPropertyAxiom axiom : ontology.getAxioms(AxiomType.FUNCTIONAL_DATA_PROPERTY)) {
+                this.functionalProperties.add(axiom.getProperty());
+            }
+
+            for (OWLFunctionalObjectPropertyAxiom axiom : ontology.getAxioms(AxiomType.FUNCTIONAL_OBJECT_PROPERTY)) {
+                this.functionalProperties.add(axiom.getProperty());
+            }
+
+            for (OWLDataPropertyRangeAxiom axiom : ontology.getAxioms(AxiomType.DATA_PROPERTY_RANGE)) {
+                this.dataPropertyRanges.computeIfAbsent(axiom.getProperty(), k -> new LinkedHashSet<>()).add(axiom);
+            }
+
+            for (OWLObjectPropertyRangeAxiom axiom : ontology.getAxioms(AxiomType.OBJECT_PROPERTY_RANGE)) {
+                this.objectPropertyRanges.computeIfAbsent(axiom.getProperty(), k -> new LinkedHashSet<>()).add(axiom);
+            }
+
+            this.descriptions.put(ontology, indexDescriptions(ontology));
+        }
+    }
+
+    /**
+     * Resolve the description of every annotated subject of an ontology in one pass over its annotation assertions.
+     * Same rules as ObaUtils.getDescription: the first property of DESCRIPTION_PROPERTIES with annotations wins,
+     * and among its values the only one or the English one is chosen.
+     */
+    private static Map<IRI, String> indexDescriptions(OWLOntology ontology) {
+        Map<IRI, Map<String, List<OWLAnnotationValue>>> values = new HashMap<>();
+        for (OWLAnnotationAssertionAxiom axiom : ontology.getAxioms(AxiomType.ANNOTATION_ASSERTION)) {
+            String property = axiom.getProperty().getIRI().toString();
+            if (axiom.getSubject() instanceof IRI && ObaUtils.DESCRIPTION_PROPERTIES.contains(property)) {
+                values.computeIfAbsent((IRI) axiom.getSubject(), k -> new HashMap<>())
+                        .computeIfAbsent(property, k -> new ArrayList<>())
+                        .add(axiom.getValue());
+            }
+        }
+
+        Map<IRI, String> descriptions = new HashMap<>();
+        values.forEach((subject, annotations) -> {
+            for (String property : ObaUtils.DESCRIPTION_PROPERTIES) {
+                List<OWLAnnotationValue> propertyValues = annotations.get(property);
+                if (propertyValues != null) {
+                    for (OWLAnnotationValue value : propertyValues) {
+                        Optional<OWLLiteral> descriptionLiteral = value.asLiteral();
+                        if (descriptionLiteral.isPresent()
+                                && (propertyValues.size() == 1 || descriptionLiteral.get().getLang().equals("en"))) {
+                            descriptions.put(subject, descriptionLiteral.get().getLiteral());
+                        }
+                    }
+
+                    break;
+                }
+            }
+        });
+
+        return descriptions;
+    }
+
+    public List<OWLOntology> getOntologies() {
+        return this.ontologies;
+    }
+
+    /**
+     * Get the class hierarchy of an ontology and its imports, the ones its structural reasoner would use.
+     * It is only computed the first time, since all the classes of the ontology share it.
+     *
+     * @param ontology ontology of the classes
+     * @return the class hierarchy
+     */
+    public ClassHierarchy getHierarchy(OWLOntology ontology) {
+        return this.hierarchies.computeIfAbsent(ontology, k -> new ClassHierarchy(
+                ontology.importsClosure().collect(Collectors.toList()), OWLManager.getOWLDataFactory().getOWLThing()));
+    }
+
+    /**
+     * Indexed version of ObaUtils.getDescription.
+     * @param entity entity to search.
+     * @param ontology ontology to be used to search descriptions.
+     * @param default_descriptions flag indicating whether default descriptions should or should not be included.
+     * @return Description String (prioritizes English language)
+     */
+    public String getDescription(OWLEntity entity, OWLOntology ontology, Boolean default_descriptions) {
+        Map<IRI, String> ontologyDescriptions = this.descriptions.get(ontology);
+        if (ontologyDescriptions == null) {
+            return ObaUtils.getDescription(entity, ontology, default_descriptions);
+        }
+
+        String descriptionValue = ontologyDescriptions.getOrDefault(entity.getIRI(), ObaUtils.DEFAULT_DESCRIPTION);
+        return !Optional.ofNullable(default_descriptions).orElse(false) && ObaUtils.DEFAULT_DESCRIPTION.equals(descriptionValue) ? null : descriptionValue;
+    }
+
+    /**
+     * Get the data property domain axioms whose domain includes the class or one of its super classes.
+     * The super classes are the ones in the ontology of the class and its imports.
+     *
+     * @param cls class
+     * @param ontology ontology of the class
+     * @return the matching domain axioms (each axiom appears once)
+     */
+    public Set<OWLDataPropertyDomainAxiom> getDataPropertyDomainAxioms(OWLClass cls, OWLOntology ontology) {
+        return collectDomainAxioms(this.dataPropertyDomains, cls, ontology);
+    }
+
+    /**
+     * Get the object property domain axioms whose domain includes the class or one of its super classes.
+     * The super classes are the ones in the ontology of the class and its imports.
+     *
+     * @param cls class
+     * @param ontology ontology of the class
+     * @return the matching domain axioms (each axiom appears once)
+     */
+    public Set<OWLObjectPropertyDomainAxiom> getObjectPropertyDomainAxioms(OWLClass cls, OWLOntology ontology) {
+        return collectDomainAxioms(this.objectPropertyDomains, cls, ontology);
+    }
+
+    /**
+     * Check if a property is declared functional in any of the ontologies (same as EntitySearcher.isFunctional).
+     *
+     * @param property data or object property
+     * @return true or false
+     */
+    public boolean isFunctional(OWLPropertyExpression property) {
+        return this.functionalProperties.contains(property);
+    }
+
+    /**
+     * Get the range axioms of a data property in all the ontologies.
+     *
+     * @param property data property
+     * @return the range axioms (may be empty)
+     */
+    public Set<OWLDataPropertyRangeAxiom> getDataPropertyRangeAxioms(OWLDataProperty property) {
+        return Collections.unmodifiableSet(this.dataPropertyRanges.getOrDefault(property, Collections.emptySet()));
+    }
+
+    /**
+     * Get the range axioms of an object property in all the ontologies.
+     *
+     * @param property object property
+     * @return the range axioms (may be empty)
+     */
+    public Set<OWLObjectPropertyRangeAxiom> getObjectPropertyRangeAxioms(OWLObjectProperty property) {
+        return Collections.unmodifiableSet(this.objectPropertyRanges.getOrDefault(property, Collections.emptySet()));
+    }
+
+    /**
+     * Cache of the restrictions inherited from each class, for the RestrictionVisitors of all the ontologies.
+     */
+    public Map<OWLClass, RestrictionVisitor> getRestrictionSummaries() {
+        return this.restrictionSummaries;
+    }
+
+    /**
+     * Get the visitors of the range axioms of a property, one per ontology. They are only computed the first time,
+     * since they do not depend on the class being mapped, and must not be modified.
+     *
+     * @param property data or object property
+     * @param visitRanges visits the range axioms of the property in an ontology
+     * @return the visitors, in the order of the ontologies
+     */
+    public List<RestrictionVisitor> getRangeRestrictions(OWLProperty property, Function<OWLOntology, RestrictionVisitor> visitRanges) {
+        return this.rangeRestrictions.computeIfAbsent(property,
+                k -> this.ontologies.stream().map(visitRanges).collect(Collectors.toList()));
+    }
+
+    private <T extends OWLAxiom> Set<T> collectDomainAxioms(Map<OWLClass, Set<T>> domains, OWLClass cls, OWLOntology ontology) {
+        Set<T> axioms = new LinkedHashSet<>(domains.getOrDefault(cls, Collections.emptySet()));
+        for (OWLClass superClass : this.getHierarchy(ontology).getSuperClasses(cls)) {
+            axioms.addAll(domains.getOrDefault(superClass, Collections.emptySet()));
+        }
+
+        return axioms;
+    }
+}
@@ -23,41 +23,54 @@ class PathGenerator {
     this.configFlags.putAll(configFlags);
   }
 
-  public PathItem generate_singular(String schemaName, String schemaURI) {
+  public PathItem generate_singular(MapperSchema mapperSchema) {
     PathItem path_item = new PathItem();
     if (this.configFlags.get(CONFIG_FLAG.PATH_GET)) {
-      path_item.get(new MapperOperation(schemaName, schemaURI, Method.GET, Cardinality.SINGULAR, auth).getOperation());
+      path_item.get(new MapperOperation(mapperSchema, Method.GET, Cardinality.SINGULAR, auth, this.configFlags).getOperation());
     }
 
     if (this.configFlags.get(CONFIG_FLAG.PATH_DELETE)) {
-      path_item.delete(new MapperOperation(schemaName, schemaURI, Method.DELETE, Cardinality.SINGULAR, auth).getOperation());
+      path_item.delete(new MapperOperation(mapperSchema, Method.DELETE, Cardinality.SINGULAR, auth, this.configFlags).getOperation());
     }
 
-    if (this.configFlags.get(CONFIG_FLAG.PATH_POST)) {
-      path_item.put(new MapperOperation(schemaName, schemaURI, Method.POST, Cardinality.SINGULAR, auth).getOperation());
+    //The instances are created in the plural path (POST /models), the singular path only updates them
+    if (this.configFlags.get(CONFIG_FLAG.PATH_PUT)) {
+      path_item.put(new MapperOperation(mapperSchema, Method.PUT, Cardinality.SINGULAR, auth, this.configFlags).getOperation());
     }
 
-    if (this.configFlags.get(CONFIG_FLAG.PATH_PUT)) {
-      path_item.put(new MapperOperation(schemaName, schemaURI, Method.PUT, Cardinality.SINGULAR, auth).getOperation());
+    if (this.configFlags.get(CONFIG_FLAG.PATH_PATCH)) {
+      path_item.patch(new MapperOperation(mapperSchema, Method.PATCH, Cardinality.SINGULAR, auth, this.configFlags).getOperation());
     }
 
     return path_item;
   }
 
 
-  public PathItem generate_plural(String schemaName, String schemaURI) {
+  public PathItem generate_plural(MapperSchema mapperSchema) {
     PathItem path_item = new PathItem();
     if (this.configFlags.get(CONFIG_FLAG.PATH_GET)) {
-      path_item.get(new MapperOperation(schemaName, schemaURI, Method.GET, Cardinality.PLURAL, auth).getOperation());
+      path_item.get(new MapperOperation(mapperSchema, Method.GET, Cardinality.PLURAL, auth, this.configFlags).getOperation());
     }
 
     if (this.configFlags.get(CONFIG_FLAG.PATH_POST)) {
-      path_item.post(new MapperOperation(schemaName,schemaURI, Method.POST, Cardinality.PLURAL, auth).getOperation());
+      path_item.post(new MapperOperation(mapperSchema, Method.POST, Cardinality.PLURAL, auth, this.configFlags).getOperation());
     }
 
     return path_item;
   }
 
+  public PathItem generate_count(MapperSchema mapperSchema) {
+    return new PathItem().get(new MapperOperation(mapperSchema, Method.GET, Cardinality.COUNT, auth, this.configFlags).getOperation());
+  }
+
+  public PathItem generate_export(MapperSchema mapperSchema) {
+    return new PathItem().get(new MapperOperation(mapperSchema, Method.GET, Cardinality.EXPORT, auth, this.configFlags).getOperation());
+  }
+
+  public PathItem generate_bulk(MapperSchema mapperSchema) {
+    return new PathItem().post(new MapperOperation(mapperSchema, Method.POST, Cardinality.BULK, auth, this.configFlags).getOperation());
+  }
+
 
   public static PathItem user_login(String schema_name) {
     ApiResponses apiResponses = new ApiResponses();
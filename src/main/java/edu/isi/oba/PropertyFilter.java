@@ -0,0 +1,216 @@
+package edu.isi.oba;
+
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.QueryParameter;
+
+import static edu.isi.oba.Oba.logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Filter of the instances of a class by the values of one of its data properties, depending on their type:
+ * equality and a list of values for strings and enums, ranges and a list of values for numbers, ranges for dates.
+ * It generates both the query parameters of the list operations and the FILTERs of the list queries,
+ * so the instances are selected by the triple store.
+ */
+class PropertyFilter {
+  static final String EQUALS = "";
+  static final String IN = "_in";
+  static final String GREATER_THAN = "_gt";
+  static final String LESS_THAN = "_lt";
+  private static final String XSD_NAMESPACE = "http://www.w3.org/2001/XMLSchema#";
+  //Parameters of the operations, which the filters must not use
+  static final Set<String> RESERVED_NAMES = Set.of("id", "label", "page", "per_page", "cursor", "ids", "expand", "username", "user");
+
+  private final String name;
+  //Name of the query parameters and of the query variables (?_name) of the filter
+  private final String parameterName;
+  private final IRI iri;
+  private final Schema valueSchema;
+  private final List<String> suffixes;
+
+  private PropertyFilter(String name, String parameterName, IRI iri, Schema valueSchema, List<String> suffixes) {
+    this.name = name;
+    this.parameterName = parameterName;
+    this.iri = iri;
+    this.valueSchema = valueSchema;
+    this.suffixes = suffixes;
+  }
+
+  /**
+   * @param name name of the data property
+   * @param iri IRI of the data property
+   * @param schema schema of the data property
+   * @return the filter of the property, or null if its values cannot be filtered (e.g. a union of datatypes)
+   * or all its parameters are reserved by the operations
+   */
+  public static PropertyFilter of(String name, IRI iri, Schema schema) {
+    Schema valueSchema = "array".equals(schema.getType()) ? schema.getItems() : schema;
+    if (iri == null || valueSchema == null || valueSchema.getType() == null) {
+      return null;
+    }
+
+    List<String> suffixes;
+    if (valueSchema.getEnum() != null) {
+      suffixes = List.of(EQUALS, IN);
+    } else {
+      switch (valueSchema.getType()) {
+        case "string":
+          suffixes = "date-time".equals(valueSchema.getFormat()) ? List.of(GREATER_THAN, LESS_THAN) : List.of(EQUALS, IN);
+          break;
+        case "integer":
+        case "number":
+          suffixes = List.of(GREATER_THAN, LESS_THAN, IN);
+          break;
+        case "boolean":
+          suffixes = List.of(EQUALS);
+          break;
+        default:
+          return null;
+      }
+    }
+
+    String parameterName = name.replaceAll("[^A-Za-z0-9_]", "_");
+    List<String> allowed = suffixes.stream()
+            .filter(suffix -> !RESERVED_NAMES.contains(parameterName + suffix))
+            .collect(Collectors.toList());
+    return allowed.isEmpty() ? null : new PropertyFilter(name, parameterName, iri, valueSchema, allowed);
+  }
+
+  /**
+   * Leave out the filters that would use the name of a query parameter of a previous filter. The names of different
+   * properties can be the same once sanitized (e.g. birth-date and birth_date), or with a suffix (e.g. age and age_gt).
+   *
+   * @param filters filters of a class
+   * @return the filters whose parameters have unique names, in the same order
+   */
+  public static List<PropertyFilter> withoutCollisions(List<PropertyFilter> filters) {
+    Set<String> usedNames = new HashSet<>();
+    List<PropertyFilter> result = new ArrayList<>();
+    for (PropertyFilter filter : filters) {
+      List<String> names = filter.getParameterNames();
+      if (Collections.disjoint(usedNames, names)) {
+        usedNames.addAll(names);
+        result.add(filter);
+      } else {
+        logger.warning("The filters of the property " + filter.name + " are not generated: another property uses the names of their parameters");
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * @return the names of the query parameters of the filter, which are also the names of its query variables
+   */
+  public List<String> getParameterNames() {
+    return this.suffixes.stream().map(suffix -> this.parameterName + suffix).collect(Collectors.toList());
+  }
+
+  /**
+   * @return the query parameters of the filter (e.g. age_gt, age_lt and age_in)
+   */
+  public List<Parameter> getParameters() {
+    List<Parameter> parameters = new ArrayList<>();
+    for (String suffix : this.suffixes) {
+      Parameter parameter = new QueryParameter()
+              .name(this.parameterName + suffix)
+              .required(false);
+      switch (suffix) {
+        case IN:
+          parameter.description("Filter by " + this.name + ", with any of these values (a value with a comma cannot be matched)")
+                  .style(Parameter.StyleEnum.FORM)
+                  .explode(false)
+                  .schema(new ArraySchema().items(this.newValueSchema()));
+          break;
+        case GREATER_THAN:
+          parameter.description("Filter by " + this.name + ", greater than this value").schema(this.newValueSchema());
+          break;
+        case LESS_THAN:
+          parameter.description("Filter by " + this.name + ", less than this value").schema(this.newValueSchema());
+          break;
+        default:
+          parameter.description("Filter by " + this.name).schema(this.newValueSchema());
+      }
+      parameters.add(parameter);
+    }
+
+    return parameters;
+  }
+
+  /**
+   * Get the FILTERs of a list query, one line per query parameter. Each of them uses the variable ?_name_suffix
+   * (the name of the query parameter), and does not filter anything while it is not bound, so the
+   * filters that are not in the request can be left in the query.
+   * The values of the _in parameters are bound as one string, separated by commas (e.g. "a,b").
+   *
+   * @param item variable of the instances in the query
+   * @param indent indentation of the lines
+   * @return the lines of the FILTERs
+   */
+  public String getPattern(String item, String indent) {
+    StringBuilder pattern = new StringBuilder();
+    for (String suffix : this.suffixes) {
+      String parameter = "?_" + this.parameterName + suffix;
+      String condition;
+      switch (suffix) {
+        case IN:
+          condition = "CONTAINS(CONCAT(\",\", STR(" + parameter + "), \",\"), CONCAT(\",\", STR(?value), \",\"))";
+          break;
+        case GREATER_THAN:
+          condition = "?value > " + this.getTypedValue(parameter);
+          break;
+        case LESS_THAN:
+          condition = "?value < " + this.getTypedValue(parameter);
+          break;
+        default:
+          //Strings are compared without their language or datatype
+          condition = "boolean".equals(this.valueSchema.getType()) ? "?value = " + this.getTypedValue(parameter)
+                  : "STR(?value) = STR(" + parameter + ")";
+      }
+      pattern.append(indent).append("FILTER(!BOUND(").append(parameter).append(") || EXISTS { ").append(item).append(" ")
+              .append(this.iri.toQuotedString()).append(" ?value FILTER(").append(condition).append(") })\n");
+    }
+
+    return pattern.toString();
+  }
+
+  /**
+   * Cast a parameter to the datatype of the values, since it may be bound as a plain string.
+   */
+  private String getTypedValue(String parameter) {
+    String datatype;
+    switch (this.valueSchema.getType()) {
+      case "integer":
+        datatype = "integer";
+        break;
+      case "number":
+        datatype = "double";
+        break;
+      case "boolean":
+        datatype = "boolean";
+        break;
+      default:
+        datatype = "date-time".equals(this.valueSchema.getFormat()) ? "dateTime" : "string";
+    }
+    return "<" + XSD_NAMESPACE + datatype + ">(" + parameter + ")";
+  }
+
+  private Schema newValueSchema() {
+    //The schema of the property may be shared with other properties, so it is not reused
+    Schema schema = new Schema().type(this.valueSchema.getType()).format(this.valueSchema.getFormat());
+    if (this.valueSchema.getEnum() != null) {
+      schema.setEnum(new ArrayList<>(this.valueSchema.getEnum()));
+    }
+    return schema;
+  }
+}
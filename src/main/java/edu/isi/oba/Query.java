@@ -1,6 +1,21 @@
 package edu.isi.oba;
 
+import static edu.isi.oba.Oba.logger;
+import edu.isi.oba.config.CONFIG_FLAG;
+
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 
 class Query {
 
@@ -14,19 +29,207 @@ class Query {
   private static final String get_all_search_query_file = "/queries/get_all_search.rq";
   private static final String get_all_search_graph_query_file = "/queries/get_all_search_user.rq";
 
+  //Keyset pagination: the list queries return the items after ?_cursor, ordered by their IRI
+  private static final String get_all_cursor_query_file = "/queries/cursor/get_all.rq";
+  private static final String get_all_cursor_graph_query_file = "/queries/cursor/get_all_user.rq";
+  private static final String get_all_search_cursor_query_file = "/queries/cursor/get_all_search.rq";
+  private static final String get_all_search_cursor_graph_query_file = "/queries/cursor/get_all_search_user.rq";
+
+  //Fetch of several resources by their ids
+  private static final String get_batch_query_file = "/queries/get_batch.rq";
+  private static final String get_batch_graph_query_file = "/queries/get_batch_user.rq";
+
+  //Number of resources of a type
+  private static final String get_all_count_query_file = "/queries/get_all_count.rq";
+  private static final String get_all_count_graph_query_file = "/queries/get_all_count_user.rq";
+
+  //All the resources of a type, without pagination, to be streamed
+  private static final String get_all_export_query_file = "/queries/get_all_export.rq";
+  private static final String get_all_export_graph_query_file = "/queries/get_all_export_user.rq";
+
+  //Update of the given properties of a resource
+  private static final String patch_graph_query_file = "/queries/patch_user.rq";
+
+  //Creation of several resources, in chunks of chunk_size resources per update
+  private static final String post_bulk_graph_query_file = "/queries/post_bulk_user.rq";
+
+  //Queries that also get a variant expanding the resources of the properties in ?_expand_iris
+  private static final Set<String> expandable_query_files = Set.of(get_all_query_file, get_all_graph_query_file,
+      get_one_query_file, get_one_graph_query_file, get_all_cursor_query_file, get_all_cursor_graph_query_file);
+
+  //Queries that list, count or export the resources of a type, where the filters by property are applied
+  private static final Set<String> list_query_files = Set.of(get_all_query_file, get_all_graph_query_file,
+      get_all_search_query_file, get_all_search_graph_query_file, get_all_cursor_query_file,
+      get_all_cursor_graph_query_file, get_all_search_cursor_query_file, get_all_search_cursor_graph_query_file,
+      get_all_count_query_file, get_all_count_graph_query_file, get_all_export_query_file, get_all_export_graph_query_file);
+
+  private final List<String> query_files = new ArrayList<>();
+  //Number of references expanded by the expand queries (0 if they are not written)
+  private final int expand_depth;
+  //Number of resources written by each update of the bulk creation
+  private final int bulk_chunk_size;
+  private static final String TYPE_IRI_PARAMETER = "?_type_iri";
+  private static final String CHUNK_SIZE_PARAMETER = "?_chunk_size";
+  //Triple pattern of the templates that matches every predicate of a resource
+  private static final Pattern PREDICATE_PATTERN = Pattern.compile("(?m)^([ \\t]*)\\?\\w+ \\?predicate \\?prop$");
+  //Triple pattern of the list templates that selects the resources of the type
+  private static final Pattern TYPE_PATTERN = Pattern.compile("(?m)^([ \\t]*)\\?item a \\?_type_iri \\.\\n");
+
 
-  public Query(String query_directory) {
+  /**
+   * @param query_directory directory to write the queries
+   * @param configFlags configuration flags, which select the query templates
+   * @param expand_depth number of references expanded when EXPAND_REFERENCES is enabled
+   * @param bulk_chunk_size number of resources per update when BULK_CREATE is enabled
+   */
+  public Query(String query_directory, Map<CONFIG_FLAG, Boolean> configFlags, Integer expand_depth, Integer bulk_chunk_size) {
     this.query_directory = query_directory + File.separator + "queries";
+    this.expand_depth = configFlags.getOrDefault(CONFIG_FLAG.EXPAND_REFERENCES, false) ? expand_depth : 0;
+    this.bulk_chunk_size = bulk_chunk_size;
+    if (configFlags.getOrDefault(CONFIG_FLAG.CURSOR_PAGINATION, false)) {
+      this.query_files.addAll(List.of(get_all_cursor_query_file, get_all_cursor_graph_query_file, get_one_query_file,
+          get_one_graph_query_file, get_all_search_cursor_query_file, get_all_search_cursor_graph_query_file));
+    } else {
+      this.query_files.addAll(List.of(get_all_query_file, get_all_graph_query_file, get_one_query_file,
+          get_one_graph_query_file, get_all_search_query_file, get_all_search_graph_query_file));
+    }
+    if (configFlags.getOrDefault(CONFIG_FLAG.BATCH_FETCH, false)) {
+      this.query_files.addAll(List.of(get_batch_query_file, get_batch_graph_query_file));
+    }
+    if (configFlags.getOrDefault(CONFIG_FLAG.EXPORT_PATHS, false)) {
+      this.query_files.addAll(List.of(get_all_export_query_file, get_all_export_graph_query_file));
+    }
+    if (configFlags.getOrDefault(CONFIG_FLAG.PATH_PATCH, false)) {
+      this.query_files.add(patch_graph_query_file);
+    }
+    if (configFlags.getOrDefault(CONFIG_FLAG.BULK_CREATE, false)) {
+      this.query_files.add(post_bulk_graph_query_file);
+    }
+    if (configFlags.getOrDefault(CONFIG_FLAG.TOTAL_COUNT, false)) {
+      this.query_files.addAll(List.of(get_all_count_query_file, get_all_count_graph_query_file));
+    }
   }
 
   public void get_all(String schema_name) throws Exception {
     String dir_path = query_directory + File.separator + schema_name + File.separator;
-    write_query(get_all_query_file, schema_name);
-    write_query(get_all_graph_query_file, schema_name);
-    write_query(get_one_query_file, schema_name);
-    write_query(get_one_graph_query_file, schema_name);
-    write_query(get_all_search_query_file, schema_name);
-    write_query(get_all_search_graph_query_file, schema_name);
+    for (String query_file_name : this.query_files) {
+      if (query_file_name.equals(post_bulk_graph_query_file)) {
+        String file_name = query_file_name.substring(query_file_name.lastIndexOf('/') + 1);
+        ObaUtils.write_file(dir_path + File.separator + file_name, read_query(query_file_name)
+            .replace(CHUNK_SIZE_PARAMETER, String.valueOf(this.bulk_chunk_size)));
+        continue;
+      }
+      write_query(query_file_name, schema_name);
+      write_expand_query(dir_path, query_file_name, read_query(query_file_name));
+    }
+  }
+
+  /**
+   * Write the queries of a class, specialised from the generic templates: the type of the class is bound
+   * and only the predicates of its schema (plus rdf:type and rdfs:label) are returned.
+   * The list queries also get the FILTERs of the filters by property.
+   *
+   * @param schema_name name of the schema of the class
+   * @param type_iri IRI of the class
+   * @param predicates IRIs of the properties of the schema
+   * @param filters filters of the list operations of the class
+   */
+  public void write_class_queries(String schema_name, IRI type_iri, Collection<IRI> predicates, List<PropertyFilter> filters) throws Exception {
+    Set<String> values = new TreeSet<>();
+    values.add(OWLRDFVocabulary.RDF_TYPE.getIRI().toQuotedString());
+    values.add(OWLRDFVocabulary.RDFS_LABEL.getIRI().toQuotedString());
+    for (IRI predicate : predicates) {
+      values.add(predicate.toQuotedString());
+    }
+
+    String dir_path = query_directory + File.separator + schema_name + File.separator;
+    File directory = new File(dir_path);
+    if (! directory.exists()){
+      directory.mkdirs();
+    }
+    for (String query_file_name : query_files) {
+      String query = read_query(query_file_name);
+      Matcher matcher = PREDICATE_PATTERN.matcher(query);
+      if (matcher.find()) {
+        String indent = matcher.group(1);
+        StringBuilder valuesClause = new StringBuilder(indent).append("VALUES ?predicate {\n");
+        for (String value : values) {
+          valuesClause.append(indent).append("    ").append(value).append("\n");
+        }
+        valuesClause.append(indent).append("}\n");
+        query = query.substring(0, matcher.start()) + valuesClause + query.substring(matcher.start());
+      }
+      matcher = TYPE_PATTERN.matcher(query);
+      if (!filters.isEmpty() && list_query_files.contains(query_file_name) && matcher.find()) {
+        StringBuilder filterClause = new StringBuilder();
+        for (PropertyFilter filter : filters) {
+          filterClause.append(filter.getPattern("?item", matcher.group(1)));
+        }
+        query = query.substring(0, matcher.end()) + filterClause + query.substring(matcher.end());
+      }
+      query = query.replace(TYPE_IRI_PARAMETER, type_iri.toQuotedString())
+          .replace(CHUNK_SIZE_PARAMETER, String.valueOf(this.bulk_chunk_size));
+
+      String file_name = query_file_name.substring(query_file_name.lastIndexOf('/') + 1);
+      ObaUtils.write_file(dir_path + File.separator + file_name, query);
+      write_expand_query(dir_path, query_file_name, query);
+    }
+  }
+
+  /**
+   * Write the expand variant of a query (e.g. get_one_expand.rq for get_one.rq), which also returns the resources
+   * of the properties in ?_expand_iris, and the resources they reference up to expand_depth, in the same query.
+   */
+  private void write_expand_query(String dir_path, String query_file_name, String query) {
+    if (this.expand_depth < 1 || !expandable_query_files.contains(query_file_name)) {
+      return;
+    }
+
+    //Add the triples of the expanded resources to the CONSTRUCT template
+    int constructEnd = query.indexOf("\n}\nWHERE");
+    if (constructEnd < 0) {
+      logger.warning("The expand variant of " + query_file_name + " is not written: its CONSTRUCT template does not end with a \"}\" line followed by WHERE");
+      return;
+    }
+    StringBuilder construct = new StringBuilder(" .");
+    for (int level = 1; level <= this.expand_depth; level++) {
+      construct.append("\n    ").append(level == 1 ? "?prop" : "?prop" + (level - 1))
+          .append(" ?predicate").append(level).append(" ?prop").append(level)
+          .append(level < this.expand_depth ? " ." : "");
+    }
+    query = query.substring(0, constructEnd) + construct + query.substring(constructEnd);
+
+    //Match them after the triple pattern of the resource, one OPTIONAL per level
+    Matcher matcher = PREDICATE_PATTERN.matcher(query);
+    if (!matcher.find()) {
+      logger.warning("The expand variant of " + query_file_name + " is not written: it has no \"?predicate ?prop\" triple pattern");
+      return;
+    }
+    String indent = matcher.group(1);
+    StringBuilder pattern = new StringBuilder();
+    for (int level = 1; level <= this.expand_depth; level++) {
+      String levelIndent = indent + "    ".repeat(level - 1);
+      pattern.append("\n").append(levelIndent).append("OPTIONAL {");
+      if (level == 1) {
+        pattern.append("\n").append(levelIndent).append("    VALUES ?predicate { ?_expand_iris }");
+      }
+      pattern.append("\n").append(levelIndent).append("    ").append(level == 1 ? "?prop" : "?prop" + (level - 1))
+          .append(" ?predicate").append(level).append(" ?prop").append(level);
+    }
+    for (int level = this.expand_depth; level >= 1; level--) {
+      pattern.append("\n").append(indent).append("    ".repeat(level - 1)).append("}");
+    }
+    query = query.substring(0, matcher.end()) + pattern + query.substring(matcher.end());
+
+    String file_name = query_file_name.substring(query_file_name.lastIndexOf('/') + 1)
+        .replaceFirst("(_user)?\\.rq$", "_expand$1.rq");
+    ObaUtils.write_file(dir_path + File.separator + file_name, query);
+  }
+
+  private static String read_query(String query_file_name) throws IOException {
+    try (InputStream query_file = ObaUtils.class.getResourceAsStream(query_file_name)) {
+      return new String(query_file.readAllBytes(), StandardCharsets.UTF_8);
+    }
   }
 
   public void write_readme(String schema_name) {
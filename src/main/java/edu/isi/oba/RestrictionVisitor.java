@@ -2,7 +2,9 @@ package edu.isi.oba;
 
 import static edu.isi.oba.Oba.logger;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -16,7 +18,7 @@ import org.semanticweb.owlapi.util.SimpleIRIShortFormProvider;
 /**
  * Visitor interface to inspect Class Restrictions
  * class Represents the OWLClass
- * onto  Represents the Ontology that contains the Class
+ * ontologies  Represents the Ontologies where the restrictions of the Class (and its super classes) are searched
  * owlThing Represents the visited class
  * propertyName Represents the name of a property that will be analyzed when this property has a restriction
  * 		   (e.g. it may be invoked from the getObjectProperties method of the MapperSchema). 
@@ -33,13 +35,18 @@ import org.semanticweb.owlapi.util.SimpleIRIShortFormProvider;
  * - propertiesFromDataRestrictions -> contains all the restricted OWLDataProperties  
  * - propertiesFromDataRestrictions_ranges -> contains the ranges of each data property restriction    
  * - valuesFromDataRestrictions_ranges -> contains the range values of data restrictions. e.g. oneOf values.                                                 
+ *
+ * The restrictions inherited from a named super class are not visited again for every class: each super class gets
+ * a summary (a visitor that visited the super class and its own super classes), computed once and cached in summaries.
  */
 
 public class RestrictionVisitor implements OWLObjectVisitor {
 	private final IRIShortFormProvider sfp = new SimpleIRIShortFormProvider();
 	private final Set<OWLClass> processedClasses;
 	private final OWLClass cls;
-	private final OWLOntology onto;
+	private final List<OWLOntology> ontologies;
+	private final Map<OWLClass, RestrictionVisitor> summaries;
+	private final boolean summary;
 	String property_name;
 	OWLClass owlThing;
 	
@@ -53,9 +60,26 @@ public class RestrictionVisitor implements OWLObjectVisitor {
 	public Map<IRI, List<String>> enums;
 
 	RestrictionVisitor(OWLClass visitedClass, OWLOntology onto, OWLClass owlThing, String propertyName ) {
+		this(visitedClass, List.of(onto), owlThing, propertyName);
+	}
+
+	RestrictionVisitor(OWLClass visitedClass, List<OWLOntology> ontologies, OWLClass owlThing, String propertyName ) {
+		this(visitedClass, ontologies, owlThing, propertyName, new HashMap<>(), false);
+	}
+
+	/**
+	 * @param summaries cache of the super class summaries, it can be shared by all the visitors of the same ontologies
+	 */
+	RestrictionVisitor(OWLClass visitedClass, List<OWLOntology> ontologies, OWLClass owlThing, String propertyName, Map<OWLClass, RestrictionVisitor> summaries) {
+		this(visitedClass, ontologies, owlThing, propertyName, summaries, false);
+	}
+
+	private RestrictionVisitor(OWLClass visitedClass, List<OWLOntology> ontologies, OWLClass owlThing, String propertyName, Map<OWLClass, RestrictionVisitor> summaries, boolean summary) {
 		processedClasses = new HashSet<OWLClass>();
 		this.cls = visitedClass;
-		this.onto = onto;
+		this.ontologies = ontologies;
+		this.summaries = summaries;
+		this.summary = summary;
 		this.property_name = propertyName;           
 		this.owlThing = owlThing;   
 		this.propertiesFromObjectRestrictions_ranges= new HashMap<>();
@@ -70,11 +94,111 @@ public class RestrictionVisitor implements OWLObjectVisitor {
 	@Override
 	public void visit(OWLClass ce) {
 		if (!this.processedClasses.contains(ce)) {
-			// If we are processing inherited restrictions then we recursively visit named supers. 
+			// If we are processing inherited restrictions then we merge the summary of the named super.
 			this.processedClasses.add(ce);
-			for (OWLSubClassOfAxiom ax: this.onto.getSubClassAxiomsForSubClass(ce)) {
-				ax.getSuperClass().accept(this);
-			}               
+			RestrictionVisitor superSummary = this.summaries.get(ce);
+			if (superSummary == null && !this.summary) {
+				superSummary = this.computeSummary(ce);
+			}
+
+			if (superSummary != null) {
+				this.merge(superSummary);
+			}
+		}
+	}
+
+	/**
+	 * Compute (and cache) the summary of a class, after the summaries of all its named super classes.
+	 * It uses an explicit stack, so deep hierarchies do not overflow the call stack. In a cycle of
+	 * super classes, the class found again while its summary is pending is skipped.
+	 *
+	 * @param ce class
+	 * @return the summary of the class
+	 */
+	private RestrictionVisitor computeSummary(OWLClass ce) {
+		Deque<OWLClass> stack = new ArrayDeque<>();
+		Set<OWLClass> pending = new HashSet<>();
+		stack.push(ce);
+		while (!stack.isEmpty()) {
+			OWLClass current = stack.peek();
+			if (this.summaries.containsKey(current)) {
+				stack.pop();
+			} else if (pending.add(current)) {
+				for (OWLClass superClass: this.getNamedSuperClasses(current)) {
+					if (!this.summaries.containsKey(superClass) && !pending.contains(superClass)) {
+						stack.push(superClass);
+					}
+				}
+			} else {
+				stack.pop();
+				RestrictionVisitor currentSummary = new RestrictionVisitor(current, this.ontologies, this.owlThing, "", this.summaries, true);
+				currentSummary.processedClasses.add(current);
+				for (OWLOntology onto: this.ontologies) {
+					for (OWLSubClassOfAxiom ax: onto.getSubClassAxiomsForSubClass(current)) {
+						ax.getSuperClass().accept(currentSummary);
+					}
+				}
+				this.summaries.putIfAbsent(current, currentSummary);
+			}
+		}
+
+		return this.summaries.get(ce);
+	}
+
+	/**
+	 * Get the named classes that visiting the super classes of a class would reach.
+	 */
+	private List<OWLClass> getNamedSuperClasses(OWLClass ce) {
+		List<OWLClass> superClasses = new ArrayList<>();
+		for (OWLOntology onto: this.ontologies) {
+			for (OWLSubClassOfAxiom ax: onto.getSubClassAxiomsForSubClass(ce)) {
+				collectNamedClasses(ax.getSuperClass(), superClasses);
+			}
+		}
+
+		return superClasses;
+	}
+
+	private static void collectNamedClasses(OWLClassExpression ce, List<OWLClass> classes) {
+		if (!ce.isAnonymous()) {
+			classes.add(ce.asOWLClass());
+		} else if (ce instanceof OWLObjectUnionOf || ce instanceof OWLObjectIntersectionOf) {
+			for (OWLClassExpression operand: ((OWLNaryBooleanClassExpression) ce).getOperands()) {
+				collectNamedClasses(operand, classes);
+			}
+		} else if (ce instanceof OWLObjectSomeValuesFrom || ce instanceof OWLObjectAllValuesFrom) {
+			OWLClassExpression filler = ((OWLQuantifiedObjectRestriction) ce).getFiller();
+			if (filler instanceof OWLObjectUnionOf || filler instanceof OWLObjectIntersectionOf) {
+				collectNamedClasses(filler, classes);
+			}
+		}
+	}
+
+	/**
+	 * Add the restrictions of a super class summary, as if its axioms had been visited here.
+	 * The summary is copied, since it is shared with other visitors. The ranges of a property are added to the ones
+	 * already found, as visiting the axioms does. A restricted property or range already found (e.g. from a super class
+	 * reached by two paths) is not added twice.
+	 */
+	private void merge(RestrictionVisitor superSummary) {
+		superSummary.restrictionsValuesFromClass.forEach((k, v) -> this.restrictionsValuesFromClass.put(k, new HashMap<>(v)));
+		addMissing(this.propertiesFromObjectRestrictions, superSummary.propertiesFromObjectRestrictions);
+		superSummary.propertiesFromObjectRestrictions_ranges.forEach((k, v) -> addMissing(this.propertiesFromObjectRestrictions_ranges.computeIfAbsent(k, key -> new ArrayList<>()), v));
+		addMissing(this.propertiesFromDataRestrictions, superSummary.propertiesFromDataRestrictions);
+		superSummary.propertiesFromDataRestrictions_ranges.forEach((k, v) -> addMissing(this.propertiesFromDataRestrictions_ranges.computeIfAbsent(k, key -> new ArrayList<>()), v));
+		addMissing(this.valuesFromDataRestrictions_ranges, superSummary.valuesFromDataRestrictions_ranges);
+		this.enums.putAll(superSummary.enums);
+		if (!superSummary.property_name.isEmpty()) {
+			this.property_name = superSummary.property_name;
+		}
+	}
+
+	private static <T> void addMissing(List<T> values, List<T> newValues) {
+		Set<T> existing = new HashSet<>(values);
+		for (T value: newValues) {
+			if (existing.add(value)) {
+				values.add(value);
+			}
 		}
 	}
 
@@ -223,7 +347,10 @@ public class RestrictionVisitor implements OWLObjectVisitor {
 			restrictionsValues.put("objectHasValue", this.sfp.getShortForm(((OWLNamedIndividual)ce.getFiller()).getIRI()));
 
 			// If object property has object(s) in its range, we want to set references to the object class.
-			var obRangeAxioms = this.onto.getObjectPropertyRangeAxioms(property);
+			var obRangeAxioms = new ArrayList<OWLObjectPropertyRangeAxiom>();
+			for (OWLOntology onto: this.ontologies) {
+				obRangeAxioms.addAll(onto.getObjectPropertyRangeAxioms(property));
+			}
 			if (obRangeAxioms.isEmpty()) {
 				logger.warning("\tObject has value (named individual) but there is no associated class/reference for the value.  Ontology may have errors.");
 			} else {
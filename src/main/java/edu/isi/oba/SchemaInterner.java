@@ -0,0 +1,123 @@
+package edu.isi.oba;
+
+import java.util.*;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.media.Schema;
+
+/**
+ * Hoists the property schemas that are structurally identical in several schemas (e.g. the default properties,
+ * or an object property in all the classes of its domain) into a shared schema of the components,
+ * and replaces each copy with a $ref to it.
+ */
+class SchemaInterner {
+    private static final String REF_PREFIX = "#/components/schemas/";
+    private static final String NAME_SUFFIX = "Property";
+
+    private final ObjectMapper canonicalMapper = getCanonicalMapper();
+    private int internedProperties = 0;
+
+    /**
+     * Intern the property schemas of the component schemas.
+     *
+     * @param schemas component schemas, by name. The shared schemas are added to it
+     * @return the names of the shared schemas that were added
+     */
+    public List<String> intern(Map<String, Schema> schemas) {
+        this.internedProperties = 0;
+        //Group the property schemas by their serialization, in a deterministic order
+        Map<String, List<PropertySchema>> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, Schema> entry : new TreeMap<>(schemas).entrySet()) {
+            Map<String, Schema> properties = entry.getValue().getProperties();
+            if (properties == null) {
+                continue;
+            }
+
+            for (Map.Entry<String, Schema> property : new TreeMap<>(properties).entrySet()) {
+                //A property that is only a $ref is already shared
+                Schema propertySchema = property.getValue();
+                if (propertySchema == null || propertySchema.get$ref() != null) {
+                    continue;
+                }
+                groups.computeIfAbsent(this.getKey(propertySchema), k -> new ArrayList<>())
+                        .add(new PropertySchema(entry.getValue(), property.getKey(), propertySchema));
+            }
+        }
+
+        List<String> sharedNames = new ArrayList<>();
+        Set<String> usedNames = new HashSet<>(schemas.keySet());
+        for (List<PropertySchema> group : groups.values()) {
+            if (group.size() < 2) {
+                continue;
+            }
+
+            PropertySchema first = group.get(0);
+            String name = this.getSharedName(first.propertyName, usedNames);
+            usedNames.add(name);
+            sharedNames.add(name);
+            schemas.put(name, first.schema);
+            for (PropertySchema propertySchema : group) {
+                propertySchema.owner.getProperties().put(propertySchema.propertyName, new Schema().$ref(REF_PREFIX + name));
+                this.internedProperties++;
+            }
+        }
+
+        return sharedNames;
+    }
+
+    /**
+     * @return the number of property schemas replaced by a $ref in the last call to intern
+     */
+    public int getInternedProperties() {
+        return this.internedProperties;
+    }
+
+    /**
+     * Copy of the swagger JSON mapper with the properties and the map entries sorted, so that identical schemas
+     * are serialized in the same way. Json.mapper() is a plain ObjectMapper, so it can't be rebuilt with a builder.
+     */
+    private static ObjectMapper getCanonicalMapper() {
+        ObjectMapper mapper = Json.mapper().copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        mapper.setConfig(mapper.getSerializationConfig().with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY));
+        return mapper;
+    }
+
+    private String getKey(Schema schema) {
+        try {
+            return this.canonicalMapper.writeValueAsString(schema);
+        } catch (JsonProcessingException e) {
+            //Not serializable: keep it as a unique key, so it is never shared
+            return "@" + System.identityHashCode(schema);
+        }
+    }
+
+    /**
+     * Name of the shared schema of a property (e.g. hasCourse -> HasCourseProperty), not used by another schema.
+     */
+    private String getSharedName(String propertyName, Set<String> usedNames) {
+        String base = propertyName.isEmpty() ? NAME_SUFFIX
+                : Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1) + NAME_SUFFIX;
+        String name = base;
+        for (int i = 2; usedNames.contains(name); i++) {
+            name = base + i;
+        }
+        return name;
+    }
+
+    private static class PropertySchema {
+        final Schema owner;
+        final String propertyName;
+        final Schema schema;
+
+        PropertySchema(Schema owner, String propertyName, Schema schema) {
+            this.owner = owner;
+            this.propertyName = propertyName;
+            this.schema = schema;
+        }
+    }
+}
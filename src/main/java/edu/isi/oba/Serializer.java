@@ -1,22 +1,56 @@
 package edu.isi.oba;
 
+import static edu.isi.oba.Oba.logger;
+import edu.isi.oba.config.CONFIG_FLAG;
+import edu.isi.oba.config.ValidationMode;
+
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
 
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+
 import io.swagger.parser.OpenAPIParser;
+import io.swagger.v3.core.util.Yaml;
 import io.swagger.v3.oas.models.*;
+import io.swagger.v3.oas.models.media.Schema;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import io.swagger.v3.parser.core.models.ParseOptions;
 import io.swagger.v3.parser.core.models.SwaggerParseResult;
 
+import org.openapitools.codegen.config.GlobalSettings;
+import org.openapitools.codegen.serializer.OpenAPISerializer;
 import org.openapitools.codegen.serializer.SerializerUtils;
 
 class Serializer {
   //TODO: validate the yaml
+  private static final String YAML_MINIMIZE_QUOTES_PROPERTY = "org.openapitools.codegen.utils.yaml.minimize.quotes";
   String openapi_path;
+  final OpenAPI openAPI;
   public  Serializer(Mapper mapper, java.nio.file.Path dir, OpenAPI openAPI, LinkedHashMap<String, PathItem> custom_paths) throws Exception {
+    this(mapper, dir, openAPI, custom_paths, false);
+  }
+
+  public  Serializer(Mapper mapper, java.nio.file.Path dir, OpenAPI openAPI, LinkedHashMap<String, PathItem> custom_paths, Boolean streaming) throws Exception {
+    this(mapper, dir, openAPI, custom_paths, streaming, ValidationMode.FULL);
+  }
+
+  /**
+   * Only the FULL validation is done here, since it needs the written file. The FAST one (SpecValidator)
+   * is left to the caller, so that it can run concurrently.
+   */
+  public  Serializer(Mapper mapper, java.nio.file.Path dir, OpenAPI openAPI, LinkedHashMap<String, PathItem> custom_paths, Boolean streaming, ValidationMode validation) throws Exception {
+    this.openAPI = openAPI;
     Map<String, Object> extensions = new HashMap<String, Object>();
     final String openapi_file = "openapi.yaml";
 
@@ -28,7 +62,14 @@ class Serializer {
     Components components = new Components();
     Paths paths = new Paths();
     mapper.paths.forEach((k, v) -> paths.addPathItem(k, v));
-    mapper.schemas.forEach((k, v) -> components.addSchemas(k, v));
+    Map<String, Schema> schemas = new TreeMap<>(mapper.schemas);
+    if (Boolean.TRUE.equals(mapper.config_data.getConfigFlagValue(CONFIG_FLAG.INTERN_SCHEMAS))) {
+      SchemaInterner interner = new SchemaInterner();
+      List<String> sharedSchemas = interner.intern(schemas);
+      logger.info("Property schemas replaced by a shared schema: " + interner.getInternedProperties()
+              + " (shared schemas: " + sharedSchemas.size() + ")");
+    }
+    schemas.forEach((k, v) -> components.addSchemas(k, v));
     components.securitySchemes(securitySchemes);
 
     //add custom paths
@@ -46,13 +87,98 @@ class Serializer {
     openAPI.components(components);
 
     //write the filename
-    String content = SerializerUtils.toYamlString(openAPI);
     this.openapi_path = dir + File.separator + openapi_file;
     File file = new File(openapi_path);
-    BufferedWriter writer = new BufferedWriter(new FileWriter(file.getAbsoluteFile()));
-    writer.write(content);
-    writer.close();
-    this.validate();
+    if (Boolean.TRUE.equals(streaming)) {
+      writeYaml(openAPI, file.getAbsoluteFile().toPath());
+    } else {
+      String content = SerializerUtils.toYamlString(openAPI);
+      BufferedWriter writer = new BufferedWriter(new FileWriter(file.getAbsoluteFile()));
+      writer.write(content);
+      writer.close();
+    }
+    if (validation == ValidationMode.FULL) {
+      this.validate();
+    }
+  }
+
+  /**
+   * Same output as SerializerUtils.toYamlString, but each path and schema is written to the file as it is serialized
+   * instead of building the whole document in a String first.
+   */
+  private static void writeYaml(OpenAPI openAPI, java.nio.file.Path file) throws IOException {
+    ObjectMapper yamlMapper = Yaml.mapper().copy();
+    YAMLFactory factory = (YAMLFactory) yamlMapper.getFactory();
+    if (Boolean.parseBoolean(GlobalSettings.getProperty(YAML_MINIMIZE_QUOTES_PROPERTY, "true"))) {
+      factory.enable(YAMLGenerator.Feature.MINIMIZE_QUOTES);
+    } else {
+      factory.disable(YAMLGenerator.Feature.MINIMIZE_QUOTES);
+    }
+
+    try (Writer writer = new LineFeedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+      withOpenAPISerializer(yamlMapper).writeValue(writer, openAPI);
+    }
+  }
+
+  /**
+   * Same settings as SerializerUtils: the OpenAPI fields in the usual order and the rest sorted alphabetically.
+   */
+  private static ObjectMapper withOpenAPISerializer(ObjectMapper mapper) {
+    SimpleModule module = new SimpleModule("OpenAPIModule");
+    module.addSerializer(OpenAPI.class, new OpenAPISerializer());
+    mapper.registerModule(module);
+    //The swagger mappers are plain ObjectMappers, so the feature is set on their config instead of with a builder
+    mapper.setConfig(mapper.getSerializationConfig().with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY));
+    return mapper;
+  }
+
+  /**
+   * Writer that replaces "\r\n" with "\n", as SerializerUtils.toYamlString does on the whole document.
+   */
+  private static class LineFeedWriter extends FilterWriter {
+    private boolean pendingCarriageReturn = false;
+
+    LineFeedWriter(Writer out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+      if (this.pendingCarriageReturn) {
+        this.pendingCarriageReturn = false;
+        if (c != '\n') {
+          out.write('\r');
+        }
+      }
+      if (c == '\r') {
+        this.pendingCarriageReturn = true;
+      } else {
+        out.write(c);
+      }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      for (int i = off; i < off + len; i++) {
+        this.write(cbuf[i]);
+      }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+      for (int i = off; i < off + len; i++) {
+        this.write(str.charAt(i));
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (this.pendingCarriageReturn) {
+        this.pendingCarriageReturn = false;
+        out.write('\r');
+      }
+      super.close();
+    }
   }
 
   private void validate() throws Exception {
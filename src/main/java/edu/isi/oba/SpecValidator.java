@@ -0,0 +1,277 @@
+package edu.isi.oba;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.swagger.v3.oas.models.*;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import io.swagger.v3.oas.models.security.SecurityRequirement;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Validation of the OpenAPI specification in memory, without writing it and parsing it again:
+ * $ref integrity, duplicate operation ids, required fields and schema name collisions.
+ * It only reads the specification, so it can run while the server template is generated.
+ */
+class SpecValidator {
+    private static final String COMPONENTS_PREFIX = "#/components/";
+    private static final Pattern PATH_PARAMETER = Pattern.compile("\\{([^}/]+)}");
+
+    private final OpenAPI openAPI;
+    private final List<String> errors = new ArrayList<>();
+    //Schemas already checked, by identity (the same instance can be referenced from many places)
+    private final Set<Schema> visitedSchemas = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param openAPI specification to validate
+     * @param schemaNames names of the schemas generated for each class
+     */
+    public SpecValidator(OpenAPI openAPI, Map<IRI, String> schemaNames) {
+        this.openAPI = openAPI;
+        this.checkRequiredFields();
+        this.checkPaths();
+        this.checkComponents();
+        this.checkSchemaNames(schemaNames);
+    }
+
+    public List<String> getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * Throw an exception with the first error found, as the swagger parser validation does.
+     * @throws Exception if the specification is not valid
+     */
+    public void validate() throws Exception {
+        if (!this.errors.isEmpty()) {
+            throw new Exception("Error when validating the API specification. " + this.errors.get(0));
+        }
+    }
+
+    private void checkRequiredFields() {
+        if (this.openAPI.getOpenapi() == null) {
+            this.errors.add("attribute openapi is missing");
+        }
+        if (this.openAPI.getInfo() == null) {
+            this.errors.add("attribute info is missing");
+        } else {
+            if (this.openAPI.getInfo().getTitle() == null) {
+                this.errors.add("attribute info.title is missing");
+            }
+            if (this.openAPI.getInfo().getVersion() == null) {
+                this.errors.add("attribute info.version is missing");
+            }
+        }
+        if (this.openAPI.getPaths() == null) {
+            this.errors.add("attribute paths is missing");
+        }
+    }
+
+    private void checkPaths() {
+        if (this.openAPI.getPaths() == null) {
+            return;
+        }
+
+        Map<String, String> operationIds = new HashMap<>();
+        this.openAPI.getPaths().forEach((path, pathItem) -> {
+            if (pathItem.get$ref() != null) {
+                return;
+            }
+
+            Set<String> templateParameters = new HashSet<>();
+            Matcher matcher = PATH_PARAMETER.matcher(path);
+            while (matcher.find()) {
+                templateParameters.add(matcher.group(1));
+            }
+            this.checkParameters(path, pathItem.getParameters());
+
+            pathItem.readOperationsMap().forEach((method, operation) -> {
+                String location = "paths." + path + "." + method.toString().toLowerCase();
+                String operationId = operation.getOperationId();
+                if (operationId != null) {
+                    String previous = operationIds.putIfAbsent(operationId, location);
+                    if (previous != null) {
+                        this.errors.add("operationId " + operationId + " is repeated in " + previous + " and " + location);
+                    }
+                }
+
+                if (operation.getResponses() == null || operation.getResponses().isEmpty()) {
+                    this.errors.add("attribute " + location + ".responses is missing");
+                } else {
+                    operation.getResponses().forEach((code, response) -> this.checkResponse(location + ".responses." + code, response));
+                }
+
+                this.checkParameters(location, operation.getParameters());
+                Set<String> declared = new HashSet<>();
+                for (List<Parameter> parameters : Arrays.asList(pathItem.getParameters(), operation.getParameters())) {
+                    if (parameters != null) {
+                        parameters.stream().filter(p -> "path".equals(p.getIn())).forEach(p -> declared.add(p.getName()));
+                    }
+                }
+                for (String parameter : templateParameters) {
+                    if (!declared.contains(parameter)) {
+                        this.errors.add("path parameter " + parameter + " of " + location + " is not defined");
+                    }
+                }
+
+                RequestBody requestBody = operation.getRequestBody();
+                if (requestBody != null) {
+                    if (requestBody.get$ref() != null) {
+                        this.checkRef(location + ".requestBody", requestBody.get$ref());
+                    } else {
+                        this.checkContent(location + ".requestBody", requestBody.getContent());
+                    }
+                }
+
+                if (operation.getSecurity() != null) {
+                    operation.getSecurity().forEach(requirement -> this.checkSecurity(location, requirement));
+                }
+            });
+        });
+    }
+
+    private void checkParameters(String location, List<Parameter> parameters) {
+        if (parameters == null) {
+            return;
+        }
+
+        for (Parameter parameter : parameters) {
+            if (parameter.get$ref() != null) {
+                this.checkRef(location + ".parameters", parameter.get$ref());
+                continue;
+            }
+            if (parameter.getName() == null || parameter.getIn() == null) {
+                this.errors.add("attributes name and in are required in the parameters of " + location);
+            } else if ("path".equals(parameter.getIn()) && !Boolean.TRUE.equals(parameter.getRequired())) {
+                this.errors.add("path parameter " + parameter.getName() + " of " + location + " must be required");
+            }
+            this.checkSchema(location + ".parameters." + parameter.getName(), parameter.getSchema());
+            this.checkContent(location + ".parameters." + parameter.getName(), parameter.getContent());
+        }
+    }
+
+    private void checkResponse(String location, ApiResponse response) {
+        if (response.get$ref() != null) {
+            this.checkRef(location, response.get$ref());
+        } else {
+            if (response.getDescription() == null) {
+                this.errors.add("attribute " + location + ".description is missing");
+            }
+            this.checkContent(location, response.getContent());
+        }
+    }
+
+    private void checkContent(String location, Content content) {
+        if (content != null) {
+            for (Map.Entry<String, MediaType> entry : content.entrySet()) {
+                this.checkSchema(location + ".content." + entry.getKey(), entry.getValue().getSchema());
+            }
+        }
+    }
+
+    private void checkSecurity(String location, SecurityRequirement requirement) {
+        Components components = this.openAPI.getComponents();
+        for (String scheme : requirement.keySet()) {
+            if (components == null || components.getSecuritySchemes() == null || !components.getSecuritySchemes().containsKey(scheme)) {
+                this.errors.add("security scheme " + scheme + " of " + location + " is not defined");
+            }
+        }
+    }
+
+    private void checkComponents() {
+        Components components = this.openAPI.getComponents();
+        if (components != null && components.getSchemas() != null) {
+            components.getSchemas().forEach((name, schema) -> this.checkSchema("components.schemas." + name, schema));
+        }
+        if (this.openAPI.getSecurity() != null) {
+            this.openAPI.getSecurity().forEach(requirement -> this.checkSecurity("security", requirement));
+        }
+    }
+
+    private void checkSchema(String location, Schema<?> schema) {
+        //Walk the schemas with an explicit stack, the nesting depth is not bounded
+        Deque<Schema<?>> pending = new ArrayDeque<>();
+        if (schema != null) {
+            pending.push(schema);
+        }
+        while (!pending.isEmpty()) {
+            Schema<?> current = pending.pop();
+            if (!this.visitedSchemas.add(current)) {
+                continue;
+            }
+            if (current.get$ref() != null) {
+                this.checkRef(location, current.get$ref());
+            }
+            if (current.getProperties() != null) {
+                current.getProperties().values().stream().filter(Objects::nonNull).forEach(pending::push);
+            }
+            if (current.getItems() != null) {
+                pending.push(current.getItems());
+            }
+            if (current.getAdditionalProperties() instanceof Schema) {
+                pending.push((Schema<?>) current.getAdditionalProperties());
+            }
+            if (current.getNot() != null) {
+                pending.push(current.getNot());
+            }
+            for (List<Schema> composed : Arrays.asList(current.getAllOf(), current.getAnyOf(), current.getOneOf())) {
+                if (composed != null) {
+                    composed.stream().filter(Objects::nonNull).forEach(pending::push);
+                }
+            }
+        }
+    }
+
+    private void checkRef(String location, String ref) {
+        //Only the references to the components of the specification can be checked without resolving
+        if (!ref.startsWith(COMPONENTS_PREFIX)) {
+            return;
+        }
+
+        String[] parts = ref.substring(COMPONENTS_PREFIX.length()).split("/", 2);
+        Components components = this.openAPI.getComponents();
+        Map<String, ?> targets = null;
+        if (components != null && parts.length == 2) {
+            switch (parts[0]) {
+                case "schemas":
+                    targets = components.getSchemas();
+                    break;
+                case "responses":
+                    targets = components.getResponses();
+                    break;
+                case "parameters":
+                    targets = components.getParameters();
+                    break;
+                case "requestBodies":
+                    targets = components.getRequestBodies();
+                    break;
+                default:
+                    return;
+            }
+        }
+
+        if (targets == null || !targets.containsKey(parts[parts.length - 1])) {
+            this.errors.add("$ref " + ref + " in " + location + " does not exist");
+        }
+    }
+
+    /**
+     * Classes of different namespaces with the same name end up in the same schema (the last one wins).
+     */
+    private void checkSchemaNames(Map<IRI, String> schemaNames) {
+        Map<String, IRI> classes = new HashMap<>();
+        new TreeMap<>(schemaNames).forEach((iri, name) -> {
+            IRI previous = classes.putIfAbsent(name, iri);
+            if (previous != null) {
+                this.errors.add("the classes " + previous + " and " + iri + " have the same schema name " + name);
+            }
+        });
+    }
+}
@@ -2,13 +2,22 @@ package edu.isi.oba.config;
 
 public enum CONFIG_FLAG {
   ALWAYS_GENERATE_ARRAYS,
+  BATCH_FETCH,
+  BULK_CREATE,
+  CLASS_QUERIES,
+  CURSOR_PAGINATION,
   DEFAULT_DESCRIPTIONS,
   DEFAULT_PROPERTIES,
+  EXPAND_REFERENCES,
+  EXPORT_PATHS,
   FOLLOW_REFERENCES,
+  INTERN_SCHEMAS,
   PATH_DELETE,
   PATH_GET,
   PATH_PATCH,
   PATH_POST,
   PATH_PUT,
+  PROPERTY_FILTERS,
   REQUIRED_PROPERTIES_FROM_CARDINALITY,
+  TOTAL_COUNT,
 }
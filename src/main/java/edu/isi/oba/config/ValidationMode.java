@@ -0,0 +1,45 @@
+package edu.isi.oba.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How the generated OpenAPI specification is validated
+ */
+public enum ValidationMode
+{
+    //No validation
+    OFF("off"),
+    //Checks of the in-memory specification ($ref integrity, duplicate operation ids, required fields, schema names)
+    FAST("fast"),
+    //Parse and resolve the written openapi.yaml with the swagger parser
+    FULL("full");
+
+    private String name;
+
+    ValidationMode(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    //Lookup table
+    private static final Map<String, ValidationMode> lookup = new HashMap<>();
+
+    //Populate the lookup table on loading time
+    static
+    {
+        for(ValidationMode mode : ValidationMode.values())
+        {
+            lookup.put(mode.getName(), mode);
+        }
+    }
+
+    //Reverse lookup by name
+    public static ValidationMode get(String name)
+    {
+        return lookup.get(name);
+    }
+}
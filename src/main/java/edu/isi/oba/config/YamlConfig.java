@@ -11,19 +11,31 @@ import java.util.Map;
 public class YamlConfig {
   private final Map<CONFIG_FLAG, Boolean> configFlags = new HashMap<>(){{
     put(CONFIG_FLAG.ALWAYS_GENERATE_ARRAYS, true);
+    put(CONFIG_FLAG.BATCH_FETCH, false);
+    put(CONFIG_FLAG.BULK_CREATE, false);
+    put(CONFIG_FLAG.CLASS_QUERIES, false);
+    put(CONFIG_FLAG.CURSOR_PAGINATION, false);
     put(CONFIG_FLAG.DEFAULT_DESCRIPTIONS, true);
     put(CONFIG_FLAG.DEFAULT_PROPERTIES, true);
+    put(CONFIG_FLAG.EXPAND_REFERENCES, false);
+    put(CONFIG_FLAG.EXPORT_PATHS, false);
     put(CONFIG_FLAG.FOLLOW_REFERENCES, true);
+    put(CONFIG_FLAG.INTERN_SCHEMAS, false);
     put(CONFIG_FLAG.PATH_DELETE, false);
     put(CONFIG_FLAG.PATH_GET, true);
     put(CONFIG_FLAG.PATH_PATCH, false);
     put(CONFIG_FLAG.PATH_POST, false);
     put(CONFIG_FLAG.PATH_PUT, false);
+    put(CONFIG_FLAG.PROPERTY_FILTERS, false);
     put(CONFIG_FLAG.REQUIRED_PROPERTIES_FROM_CARDINALITY, false);
+    put(CONFIG_FLAG.TOTAL_COUNT, false);
   }};
 
   String DEFAULT_OUTPUT_DIRECTORY = "outputs";
   String DEFAULT_PROJECT_NAME = "default_project";
+  Integer DEFAULT_THREADS = 1;
+  Integer DEFAULT_EXPAND_DEPTH = 1;
+  Integer DEFAULT_BULK_CHUNK_SIZE = 1000;
   public OpenAPI openapi;
   public String output_dir = DEFAULT_OUTPUT_DIRECTORY;
   public String name = DEFAULT_PROJECT_NAME;
@@ -36,6 +48,13 @@ public class YamlConfig {
   private LinkedHashMap<String, PathItem> custom_paths = null;
   public List<String> classes;
   public String custom_queries_directory;
+  public Integer threads = DEFAULT_THREADS;
+  public Boolean streaming_serialization = false;
+  public String validation = ValidationMode.FULL.getName();
+  public Integer follow_references_depth;
+  public Integer follow_references_limit;
+  public Integer expand_depth = DEFAULT_EXPAND_DEPTH;
+  public Integer bulk_chunk_size = DEFAULT_BULK_CHUNK_SIZE;
 
   public Boolean getEnable_get_paths() {
     return this.configFlags.get(CONFIG_FLAG.PATH_GET);
@@ -85,6 +104,66 @@ public class YamlConfig {
     this.custom_queries_directory = custom_queries_directory;
   }
 
+  public Integer getThreads() {
+    return threads;
+  }
+
+  public void setThreads(Integer threads) {
+    this.threads = threads;
+  }
+
+  public Boolean getStreaming_serialization() {
+    return streaming_serialization;
+  }
+
+  public void setStreaming_serialization(Boolean streaming_serialization) {
+    this.streaming_serialization = streaming_serialization;
+  }
+
+  public String getValidation() {
+    return validation;
+  }
+
+  public void setValidation(String validation) {
+    this.validation = validation;
+  }
+
+  public ValidationMode getValidation_mode() {
+    return ValidationMode.get(validation);
+  }
+
+  public Integer getFollow_references_depth() {
+    return follow_references_depth;
+  }
+
+  public void setFollow_references_depth(Integer follow_references_depth) {
+    this.follow_references_depth = follow_references_depth;
+  }
+
+  public Integer getExpand_depth() {
+    return expand_depth;
+  }
+
+  public void setExpand_depth(Integer expand_depth) {
+    this.expand_depth = expand_depth;
+  }
+
+  public Integer getBulk_chunk_size() {
+    return bulk_chunk_size;
+  }
+
+  public void setBulk_chunk_size(Integer bulk_chunk_size) {
+    this.bulk_chunk_size = bulk_chunk_size;
+  }
+
+  public Integer getFollow_references_limit() {
+    return follow_references_limit;
+  }
+
+  public void setFollow_references_limit(Integer follow_references_limit) {
+    this.follow_references_limit = follow_references_limit;
+  }
+
   public String getOutput_dir() {
     return output_dir;
   }
@@ -205,6 +284,78 @@ public class YamlConfig {
     this.configFlags.put(CONFIG_FLAG.REQUIRED_PROPERTIES_FROM_CARDINALITY, required_properties_from_cardinality);
   }
 
+  public Boolean getIntern_schemas() {
+    return this.configFlags.get(CONFIG_FLAG.INTERN_SCHEMAS);
+  }
+
+  public void setIntern_schemas(Boolean intern_schemas) {
+    this.configFlags.put(CONFIG_FLAG.INTERN_SCHEMAS, intern_schemas);
+  }
+
+  public Boolean getClass_queries() {
+    return this.configFlags.get(CONFIG_FLAG.CLASS_QUERIES);
+  }
+
+  public void setClass_queries(Boolean class_queries) {
+    this.configFlags.put(CONFIG_FLAG.CLASS_QUERIES, class_queries);
+  }
+
+  public Boolean getCursor_pagination() {
+    return this.configFlags.get(CONFIG_FLAG.CURSOR_PAGINATION);
+  }
+
+  public void setCursor_pagination(Boolean cursor_pagination) {
+    this.configFlags.put(CONFIG_FLAG.CURSOR_PAGINATION, cursor_pagination);
+  }
+
+  public Boolean getBatch_fetch() {
+    return this.configFlags.get(CONFIG_FLAG.BATCH_FETCH);
+  }
+
+  public void setBatch_fetch(Boolean batch_fetch) {
+    this.configFlags.put(CONFIG_FLAG.BATCH_FETCH, batch_fetch);
+  }
+
+  public Boolean getExpand_references() {
+    return this.configFlags.get(CONFIG_FLAG.EXPAND_REFERENCES);
+  }
+
+  public void setExpand_references(Boolean expand_references) {
+    this.configFlags.put(CONFIG_FLAG.EXPAND_REFERENCES, expand_references);
+  }
+
+  public Boolean getProperty_filters() {
+    return this.configFlags.get(CONFIG_FLAG.PROPERTY_FILTERS);
+  }
+
+  public void setProperty_filters(Boolean property_filters) {
+    this.configFlags.put(CONFIG_FLAG.PROPERTY_FILTERS, property_filters);
+  }
+
+  public Boolean getTotal_count() {
+    return this.configFlags.get(CONFIG_FLAG.TOTAL_COUNT);
+  }
+
+  public void setTotal_count(Boolean total_count) {
+    this.configFlags.put(CONFIG_FLAG.TOTAL_COUNT, total_count);
+  }
+
+  public Boolean getExport_paths() {
+    return this.configFlags.get(CONFIG_FLAG.EXPORT_PATHS);
+  }
+
+  public void setExport_paths(Boolean export_paths) {
+    this.configFlags.put(CONFIG_FLAG.EXPORT_PATHS, export_paths);
+  }
+
+  public Boolean getBulk_create() {
+    return this.configFlags.get(CONFIG_FLAG.BULK_CREATE);
+  }
+
+  public void setBulk_create(Boolean bulk_create) {
+    this.configFlags.put(CONFIG_FLAG.BULK_CREATE, bulk_create);
+  }
+
   public AuthConfig getAuth() {
     return auth;
   }
@@ -1,4 +1,5 @@
 import hashlib
+import json
 from logging import getLogger
 import pathlib
 import pickle
@@ -7,6 +8,17 @@ from connexion.spec import Specification
 
 logger = getLogger(__name__)
 
+#Specification files of the server, in order of preference. The JSON one is faster to load than the YAML
+SPECIFICATION_FILES = ['openapi.json', 'openapi.yaml']
+
+
+def specification_file(specification_dir):
+    """Get the fastest specification file to load available in specification_dir."""
+    for file_name in SPECIFICATION_FILES:
+        if (pathlib.Path(specification_dir) / file_name).is_file():
+            return file_name
+    return SPECIFICATION_FILES[-1]
+
 
 class CachedSpecification(Specification):
     """Cache the built API specification.
@@ -47,10 +59,15 @@ class CachedSpecification(Specification):
     @classmethod
     def _real_from_file(cls, spec, arguments=None):
         """
-        Takes in a path to a YAML file, and returns a Specification
+        Takes in a path to a YAML or JSON file, and returns a Specification
         """
         specification_path = pathlib.Path(spec)
-        spec = cls._load_spec_from_file(arguments, specification_path)
+        if specification_path.suffix == '.json':
+            #The JSON bundle is parsed directly, without the YAML parser
+            with specification_path.open('rb') as f:
+                spec = json.load(f)
+        else:
+            spec = cls._load_spec_from_file(arguments, specification_path)
         return cls.from_dict(spec)
 
     @classmethod
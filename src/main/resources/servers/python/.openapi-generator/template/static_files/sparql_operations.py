@@ -0,0 +1,338 @@
+"""Operations of the API that use the queries and the parameters added by OBA, which the QueryManager of
+obasparql does not support. The controllers call them instead of the QueryManager when the operation has the
+x-oba-operation extension, whose value is the name of the function.
+
+The queries are read from the directory of the class, or from _default_, and their ?_name variables are bound
+to the values of the request. The variables of the parameters that are not in the request stay unbound, so the
+FILTERs that check them with BOUND(?_name) do not filter anything.
+"""
+from functools import lru_cache
+import json
+import re
+import uuid
+
+import connexion
+from flask import Response
+import requests
+from pyld import jsonld
+from werkzeug.exceptions import BadRequest
+
+from openapi_server.settings import CONTEXT_DIRECTORY, ENDPOINT_GRAPH_BASE, ENDPOINT_PASSWORD, \
+    ENDPOINT_RESOURCE_PREFIX, ENDPOINT_USERNAME, QUERY_DIRECTORY, QUERY_ENDPOINT, UPDATE_ENDPOINT
+
+DEFAULT_QUERY_DIRECTORY = '_default_'
+JSONLD_MEDIA_TYPE = 'application/ld+json'
+SPARQL_RESULTS_MEDIA_TYPE = 'application/sparql-results+json'
+NDJSON_MEDIA_TYPE = 'application/x-ndjson'
+N_TRIPLES_MEDIA_TYPE = 'application/n-triples'
+#Size of the chunks of the N-Triples streamed from the endpoint
+EXPORT_CHUNK_SIZE = 64 * 1024
+NEXT_CURSOR_HEADER = 'X-Next-Cursor'
+TOTAL_COUNT_HEADER = 'X-Total-Count'
+DEFAULT_PER_PAGE = 100
+DEFAULT_CHUNK_SIZE = 1000
+
+#Parameters of the operations that are not filters by property
+OPERATION_PARAMETERS = {'id', 'label', 'page', 'per_page', 'cursor', 'ids', 'expand', 'username', 'user'}
+
+#Number of instances written by each update of the bulk creation, set by OBA in the query
+CHUNK_SIZE_PATTERN = re.compile(r'^#\+ chunk_size: (\d+)', re.MULTILINE)
+#A variable of the queries (?_name), or a BOUND(?_name) expression
+VARIABLE_PATTERN = re.compile(r'(BOUND\(\s*)?\?_(\w+)(?(1)\s*\))')
+#Characters that are not allowed in an IRI of a query
+IRI_EXCLUDED_PATTERN = re.compile(r'[\x00-\x20<>"{}|^`\\]')
+
+
+def get_resources(arguments, rdf_type_uri, rdf_type_name, kls):
+    """List the instances of a class. With a cursor parameter, the page starts after the cursor, and the cursor of
+    the next page is sent in the X-Next-Cursor header. With the ids parameter, only the instances of the ids are
+    returned, in one query and without pagination. With the expand parameter, the resources of the expanded
+    properties are returned in the instances. The other parameters are the filters by property.
+    If the class has a count query, the number of instances in all the pages is sent in the X-Total-Count header.
+
+    :param arguments: query parameters of the request, by their name in the specification
+    """
+    username = arguments.get('username')
+    per_page = arguments.get('per_page') or DEFAULT_PER_PAGE
+    variables = list_variables(arguments, rdf_type_uri)
+
+    ids = arguments.get('ids')
+    if ids:
+        variables['resource_iris'] = ' '.join(iri(resource_iri(id)) for id in ids)
+        return construct(bind(read_query(rdf_type_name, 'get_batch', username), variables), rdf_type_uri), 200, {}
+
+    expand = arguments.get('expand')
+    if expand:
+        variables['expand_iris'] = property_iris(expand)
+        query = read_query(rdf_type_name, 'get_all_expand', username)
+    else:
+        query = read_query(rdf_type_name, 'get_all_search' if arguments.get('label') else 'get_all', username)
+    cursor_pagination = 'cursor' in arguments
+    if cursor_pagination:
+        variables['cursor'] = iri(resource_iri(arguments.get('cursor')))
+    else:
+        offset = ((arguments.get('page') or 1) - 1) * per_page
+        query = re.sub(r'\bOFFSET \d+', 'OFFSET {}'.format(offset), query, count=1)
+    query = re.sub(r'\bLIMIT \d+', 'LIMIT {}'.format(per_page), query, count=1)
+
+    items = construct(bind(query, variables), rdf_type_uri)
+    headers = {}
+    #The last page is the first one with less instances than per_page
+    if cursor_pagination and len(items) == per_page:
+        headers[NEXT_CURSOR_HEADER] = items[-1]['id']
+    if query_path(rdf_type_name, 'get_all_count', username):
+        headers[TOTAL_COUNT_HEADER] = str(count(arguments, rdf_type_uri, rdf_type_name))
+    return items, 200, headers
+
+
+def get_resource(id, arguments, rdf_type_uri, rdf_type_name, kls):
+    """Get an instance of a class. With the expand parameter, the resources of the expanded properties are returned
+    in the instance."""
+    username = arguments.get('username')
+    resource = resource_iri(id)
+    variables = {
+        'resource_iri': iri(resource),
+        'type_iri': iri(rdf_type_uri),
+        'g_iri': graph_iri(username),
+    }
+
+    expand = arguments.get('expand')
+    if expand:
+        variables['expand_iris'] = property_iris(expand)
+    query = read_query(rdf_type_name, 'get_one_expand' if expand else 'get_one', username)
+    item = next((item for item in construct(bind(query, variables), rdf_type_uri) if item.get('id') == resource), None)
+    if item is None:
+        return 'Not found', 404, {}
+    return item, 200, {}
+
+
+def count_resources(arguments, rdf_type_uri, rdf_type_name, kls):
+    """Count the instances of a class that match the filters. The number is also sent in the X-Total-Count header"""
+    total = count(arguments, rdf_type_uri, rdf_type_name)
+    return total, 200, {TOTAL_COUNT_HEADER: str(total)}
+
+
+def count(arguments, rdf_type_uri, rdf_type_name):
+    username = arguments.get('username')
+    query = bind(read_query(rdf_type_name, 'get_all_count', username), list_variables(arguments, rdf_type_uri))
+    bindings = post(QUERY_ENDPOINT, {'query': query}, SPARQL_RESULTS_MEDIA_TYPE).json()['results']['bindings']
+    return int(bindings[0]['count']['value']) if bindings else 0
+
+
+def export_resources(arguments, rdf_type_uri, rdf_type_name, kls):
+    """Export all the instances of a class that match the filters, without pagination. The N-Triples are streamed
+    as the endpoint returns them, the NDJSON is written one framed instance per line."""
+    username = arguments.get('username')
+    query = bind(read_query(rdf_type_name, 'get_all_export', username), list_variables(arguments, rdf_type_uri))
+    media_type = connexion.request.accept_mimetypes.best_match([NDJSON_MEDIA_TYPE, N_TRIPLES_MEDIA_TYPE],
+                                                               NDJSON_MEDIA_TYPE)
+    if media_type == N_TRIPLES_MEDIA_TYPE:
+        response = post(QUERY_ENDPOINT, {'query': query}, N_TRIPLES_MEDIA_TYPE, stream=True)
+        return Response(response.iter_content(chunk_size=EXPORT_CHUNK_SIZE), mimetype=N_TRIPLES_MEDIA_TYPE)
+
+    items = construct(query, rdf_type_uri)
+    return Response((json.dumps(item) + '\n' for item in items), mimetype=NDJSON_MEDIA_TYPE)
+
+
+def patch_resource(id, arguments, rdf_type_uri, rdf_type_name, kls):
+    """Update the properties in the request of an instance of a class, the other properties keep their values.
+    The body is read as JSON, with the names of the properties in the context."""
+    user = arguments.get('user')
+    if not user:
+        return 'Unauthorized', 401, {}
+
+    resource = resource_iri(id)
+    properties = {name: values for name, values in (connexion.request.get_json() or {}).items()
+                  if name not in ('id', 'type')}
+    if properties:
+        variables = {
+            'resource_iri': iri(resource),
+            'type_iri': iri(rdf_type_uri),
+            'g_iri': graph_iri(user),
+            'predicate_iris': property_iris(properties),
+            'triples': triples(resource, properties),
+        }
+        post(UPDATE_ENDPOINT, {'update': bind(read_query(rdf_type_name, 'patch', user), variables)})
+    return get_resource(id, {'username': user}, rdf_type_uri, rdf_type_name, kls)
+
+
+def post_resources(arguments, rdf_type_uri, rdf_type_name, kls):
+    """Create several instances of a class, with one update per chunk of instances. The instances without an id
+    get a new one."""
+    user = arguments.get('user')
+    if not user:
+        return 'Unauthorized', 401, {}
+
+    query = read_query(rdf_type_name, 'post_bulk', user)
+    chunk_size = CHUNK_SIZE_PATTERN.search(query)
+    chunk_size = int(chunk_size.group(1)) if chunk_size else DEFAULT_CHUNK_SIZE
+    items = connexion.request.get_json() or []
+    lines = []
+    for item in items:
+        item['id'] = resource_iri(item.get('id') or str(uuid.uuid4()))
+        properties = {name: values for name, values in item.items() if name not in ('id', 'type')}
+        lines.append('{} a {} .\n{}'.format(iri(item['id']), iri(rdf_type_uri), triples(item['id'], properties)))
+    for start in range(0, len(lines), chunk_size):
+        variables = {
+            'g_iri': graph_iri(user),
+            'triples': '\n'.join(lines[start:start + chunk_size]),
+        }
+        post(UPDATE_ENDPOINT, {'update': bind(query, variables)})
+    return items, 201, {}
+
+
+def triples(resource, properties):
+    """Write the values of the properties of a resource as N-Triples, with the datatypes of the context"""
+    terms = context()
+    lines = []
+    for name, values in properties.items():
+        if not isinstance(terms.get(name), dict):
+            raise BadRequest('Unknown property: {}'.format(name))
+        for value in values if isinstance(values, list) else [values]:
+            if value is not None:
+                lines.append('{} {} {} .'.format(iri(resource), iri(terms[name]['@id']),
+                                                 value_term(value, terms[name].get('@type'))))
+    return '\n'.join(lines)
+
+
+def value_term(value, datatype):
+    if isinstance(value, dict):
+        #A referenced resource
+        if not value.get('id'):
+            raise BadRequest('The referenced resources must have an id')
+        return iri(resource_iri(value['id']))
+    if datatype == '@id':
+        return iri(resource_iri(value))
+    if datatype:
+        return '{}^^{}'.format(literal(value), iri(datatype))
+    return literal(value)
+
+
+def construct(query, rdf_type_uri):
+    """Run a CONSTRUCT query, and frame its resources of the type with the context of the API. The resources they
+    reference are embedded in all of them, with the properties returned by the query.
+
+    :return: the resources, ordered by their id
+    """
+    response = post(QUERY_ENDPOINT, {'query': query}, JSONLD_MEDIA_TYPE)
+    framed = jsonld.frame(response.json(), {'@context': context(), '@type': rdf_type_uri, '@embed': '@always'})
+    items = framed.pop('@graph', None)
+    if items is None:
+        #A single resource is not wrapped in a @graph
+        framed.pop('@context', None)
+        items = [framed] if framed else []
+    return sorted(items, key=lambda item: item.get('id', ''))
+
+
+def list_variables(arguments, rdf_type_uri):
+    """Get the variables of the queries that list the instances of a class: its type, the user graph, the label and
+    the filters by property"""
+    return {
+        'type_iri': iri(rdf_type_uri),
+        'g_iri': graph_iri(arguments.get('username')),
+        'label': literal(arguments.get('label')),
+        **filter_variables(arguments),
+    }
+
+
+def filter_variables(arguments):
+    """Get the variables of the filters by property (?_name, ?_name_gt...) in the request. The values are bound as
+    strings, which the queries cast to the type of the property, and the values of the _in filters as one string
+    separated by commas."""
+    variables = {}
+    for name, value in arguments.items():
+        if name in OPERATION_PARAMETERS or value is None:
+            continue
+        if isinstance(value, list):
+            value = ','.join(lexical(item) for item in value)
+        variables[name] = literal(value)
+    return variables
+
+
+def post(url, data, accept=None, stream=False):
+    auth = (ENDPOINT_USERNAME, ENDPOINT_PASSWORD) if ENDPOINT_USERNAME else None
+    headers = {'Accept': accept} if accept else {}
+    response = requests.post(url, data=data, headers=headers, auth=auth, stream=stream)
+    response.raise_for_status()
+    return response
+
+
+@lru_cache(maxsize=None)
+def context():
+    with open(CONTEXT_DIRECTORY / 'context.json') as context_file:
+        return json.load(context_file)['@context']
+
+
+def read_query(rdf_type_name, name, user=None):
+    path = query_path(rdf_type_name, name, user)
+    if path is None:
+        raise FileNotFoundError('The query {} of {} does not exist'.format(name, rdf_type_name))
+    return path.read_text()
+
+
+def query_path(rdf_type_name, name, user=None):
+    """Get the path of a query of a class, or of the generic one if the class has none, or None if neither exists.
+    The queries of a user graph end with _user"""
+    file_name = name + ('_user' if user else '') + '.rq'
+    for directory in (rdf_type_name, DEFAULT_QUERY_DIRECTORY):
+        path = QUERY_DIRECTORY / directory / file_name
+        if path.is_file():
+            return path
+    return None
+
+
+def bind(query, variables):
+    """Replace the ?_name variables of a query with the values of variables, already written as SPARQL terms.
+    BOUND(?_name) is replaced with true, since a value cannot be an argument of BOUND.
+    The variables without a value (None) are not replaced.
+    """
+    def replace(match):
+        value = variables.get(match.group(2))
+        if value is None:
+            return match.group(0)
+        return 'true' if match.group(1) else value
+
+    return VARIABLE_PATTERN.sub(replace, query)
+
+
+def iri(value):
+    if value is None:
+        return None
+    if IRI_EXCLUDED_PATTERN.search(value):
+        raise BadRequest('Invalid IRI: {}'.format(value))
+    return '<{}>'.format(value)
+
+
+def literal(value):
+    if value is None:
+        return None
+    escaped = lexical(value).replace('\\', '\\\\').replace('"', '\\"').replace('\n', '\\n').replace('\r', '\\r')
+    return '"{}"'.format(escaped)
+
+
+def lexical(value):
+    """Get the lexical form of the value of a parameter, which connexion may have converted (e.g. to a datetime)"""
+    if isinstance(value, bool):
+        return 'true' if value else 'false'
+    if hasattr(value, 'isoformat'):
+        return value.isoformat()
+    return str(value)
+
+
+def resource_iri(id):
+    """Get the IRI of a resource from its id, which can be the IRI itself"""
+    if id is None or re.match(r'^https?://', id):
+        return id
+    return '{}/{}'.format(ENDPOINT_RESOURCE_PREFIX, id)
+
+
+def property_iris(names):
+    """Get the IRIs of properties from their names in the context"""
+    terms = context()
+    if any(not isinstance(terms.get(name), dict) for name in names):
+        raise BadRequest('Unknown properties: {}'.format(', '.join(names)))
+    return ' '.join(iri(terms[name]['@id']) for name in names)
+
+
+def graph_iri(user):
+    return iri(ENDPOINT_GRAPH_BASE + user) if user else None
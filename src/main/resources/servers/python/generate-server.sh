@@ -28,12 +28,14 @@ docker run --rm -v ${PWD}:/local \
      -g python-flask  \
      -o /local/$SERVER_DIR/ \
      --template-dir /local/.openapi-generator/template \
+     -c /local/.openapi-generator/config.yaml \
      --ignore-file-override /local/.openapi-generator-ignore
 
 cp -r ${PWD}/.openapi-generator/template/static_files/utils/ ${PWD}/$SERVER_DIR/openapi_server/utils/
 cp -r ${PWD}/.openapi-generator/template/static_files/settings/ ${PWD}/$SERVER_DIR/openapi_server/settings/
 cp -r ${PWD}/.openapi-generator/template/static_files/user_controller.py ${PWD}/$SERVER_DIR/openapi_server/controllers/
 cp -r ${PWD}/.openapi-generator/template/static_files/cached.py ${PWD}/$SERVER_DIR/openapi_server/
+cp -r ${PWD}/.openapi-generator/template/static_files/sparql_operations.py ${PWD}/$SERVER_DIR/openapi_server/
 mkdir -p ${PWD}/$SERVER_DIR/contexts/
 echo "Copying query files"
 cp -r ../../queries ${PWD}/$SERVER_DIR/queries
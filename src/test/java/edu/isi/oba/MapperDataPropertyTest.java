@@ -0,0 +1,62 @@
+package edu.isi.oba;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.Schema;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MapperDataPropertyTest {
+
+    @Test
+    public void testXsdDatatypes() {
+        Schema schema = new MapperDataProperty("age", "age", true, new HashMap<>(), Collections.emptyList(),
+                List.of("nonNegativeInteger"), false, true).getSchemaByDataProperty();
+        Assertions.assertEquals("integer", schema.getType());
+        Assertions.assertEquals("age", schema.getDescription());
+
+        schema = new MapperDataProperty("created", "creation date", false, new HashMap<>(), Collections.emptyList(),
+                List.of("dateTimeStamp"), true, true).getSchemaByDataProperty();
+        Assertions.assertEquals("string", schema.getItems().getType());
+        Assertions.assertEquals("date-time", schema.getItems().getFormat());
+
+        schema = new MapperDataProperty("size", "size", false, Map.of("unionOf", "someValuesFrom"), Collections.emptyList(),
+                List.of("long", "float", "anyURI"), true, true).getSchemaByDataProperty();
+        List<Schema> anyOf = schema.getItems().getAnyOf();
+        Assertions.assertEquals("int64", anyOf.get(0).getFormat());
+        Assertions.assertEquals("double", anyOf.get(1).getFormat());
+        Assertions.assertEquals("uri", anyOf.get(2).getFormat());
+        Assertions.assertFalse(schema.getNullable());
+    }
+
+    /**
+     * The items of the arrays share the base schema of their type, so a restriction must not leak to other properties.
+     */
+    @Test
+    public void testRestrictionsDoNotChangeSharedSchemas() {
+        Map<String, String> restrictions = new HashMap<>();
+        restrictions.put("dataHasValue", "red");
+        restrictions.put("minCardinality", "2");
+        ArraySchema restricted = (ArraySchema) new MapperDataProperty("color", "color", false, restrictions,
+                Collections.emptyList(), List.of("string"), true, true).getSchemaByDataProperty();
+        Assertions.assertEquals("red", restricted.getItems().getDefault());
+        Assertions.assertEquals(2, restricted.getMinItems());
+        Assertions.assertNull(restricted.getItems().getMinItems());
+
+        ArraySchema plain = (ArraySchema) new MapperDataProperty("name", "name", false, new HashMap<>(),
+                Collections.emptyList(), List.of("string"), true, true).getSchemaByDataProperty();
+        ArraySchema other = (ArraySchema) new MapperDataProperty("title", "title", false, new HashMap<>(),
+                Collections.emptyList(), List.of("token"), true, true).getSchemaByDataProperty();
+        Assertions.assertNull(plain.getItems().getDefault());
+        Assertions.assertNull(plain.getMinItems());
+        Assertions.assertSame(plain.getItems(), other.getItems());
+        Assertions.assertNotSame(restricted.getItems(), plain.getItems());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> plain.getItems().setDescription("name"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> plain.getItems().nullable(false));
+    }
+}
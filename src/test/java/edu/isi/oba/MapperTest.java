@@ -8,23 +8,61 @@ import edu.isi.oba.config.YamlConfig;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.media.Content;
 import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.semanticweb.owlapi.model.OWLClass;
 
 public class MapperTest {
+    @BeforeEach
+    public void setUp() {
+        InputStream stream = Oba.class.getClassLoader().getResourceAsStream("logging.properties");
+        try {
+            LogManager.getLogManager().readConfiguration(stream);
+            edu.isi.oba.Oba.logger = Logger.getLogger(Oba.class.getName());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return the configuration of the restrictions example, without authentication
+     */
+    private static YamlConfig getRestrictionsConfig() {
+        YamlConfig config_data = get_yaml_data("examples/restrictions/config.yaml");
+        config_data.setAuth(new AuthConfig());
+        return config_data;
+    }
+
+    /**
+     * Map the ontologies of a configuration, and write its ontologies and queries into a directory.
+     */
+    private static Mapper createSchemas(YamlConfig config_data, Path dir) throws Exception {
+        config_data.setOutput_dir(dir.toString());
+        Mapper mapper = new Mapper(config_data);
+        mapper.createSchemas(dir.toString());
+        return mapper;
+    }
+
     @Test
     public void testFilter() throws Exception{
         String config_test_file_path = "src/test/config/dbpedia.yaml";
@@ -81,6 +119,258 @@ public class MapperTest {
         
     }
 
+    /**
+     * The streaming serialization must write the same openapi.yaml as the in-memory one.
+     */
+    @Test
+    public void testStreamingSerialization() throws Exception{
+        Mapper mapper = createSchemas(getRestrictionsConfig(), Files.createTempDirectory("oba"));
+
+        Path memory_dir = Files.createTempDirectory("oba");
+        Path streaming_dir = Files.createTempDirectory("oba");
+        new Serializer(mapper, memory_dir, getRestrictionsConfig().getOpenapi(), null, false);
+        new Serializer(mapper, streaming_dir, getRestrictionsConfig().getOpenapi(), null, true);
+
+        Assertions.assertEquals(Files.readString(memory_dir.resolve("openapi.yaml")), Files.readString(streaming_dir.resolve("openapi.yaml")));
+    }
+
+    @Test
+    public void testClassQueries() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setClass_queries(true);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        String query = Files.readString(dir.resolve("queries").resolve("Student").resolve("get_all.rq"));
+        Assertions.assertTrue(query.contains("?item a <https://w3id.org/example#Student> ."));
+        Assertions.assertFalse(query.contains("?_type_iri"));
+        Assertions.assertTrue(query.contains("<https://w3id.org/example#hasCourse>"));
+        Assertions.assertTrue(query.contains("<http://www.w3.org/1999/02/22-rdf-syntax-ns#type>"));
+        Assertions.assertTrue(query.indexOf("VALUES ?predicate") < query.indexOf("?item ?predicate ?prop\n"));
+        //Properties of other classes are not returned
+        Assertions.assertFalse(query.contains("<https://w3id.org/example#hasStudent>"));
+
+        String one = Files.readString(dir.resolve("queries").resolve("Student").resolve("get_one_user.rq"));
+        Assertions.assertTrue(one.contains("?_resource_iri ?predicate ?prop"));
+        Assertions.assertTrue(one.contains("<https://w3id.org/example#hasCourse>"));
+        Assertions.assertTrue(Files.exists(dir.resolve("queries").resolve(Mapper.DEFAULT_DIR_QUERY).resolve("get_all.rq")));
+    }
+
+    @Test
+    public void testCursorPagination() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setCursor_pagination(true);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        Operation list = mapper.paths.get("/students").getGet();
+        List<String> parameters = list.getParameters().stream().map(Parameter::getName).collect(Collectors.toList());
+        Assertions.assertTrue(parameters.contains("cursor"));
+        Assertions.assertTrue(parameters.contains("per_page"));
+        Assertions.assertFalse(parameters.contains("page"));
+        Assertions.assertTrue(list.getResponses().get("200").getHeaders().containsKey(MapperOperation.NEXT_CURSOR_HEADER));
+        //The generated server binds the cursor, instead of obasparql
+        Assertions.assertEquals("get_resources", list.getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+        Assertions.assertNull(mapper.paths.get("/students/{id}").getGet().getExtensions());
+
+        String query = Files.readString(dir.resolve("queries").resolve(Mapper.DEFAULT_DIR_QUERY).resolve("get_all.rq"));
+        //The first page has no cursor
+        Assertions.assertTrue(query.contains("FILTER(!BOUND(?_cursor) || STR(?item) > STR(?_cursor))"));
+        Assertions.assertTrue(query.contains("ORDER BY ?item"));
+        Assertions.assertFalse(query.contains("OFFSET"));
+    }
+
+    @Test
+    public void testBatchFetch() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setBatch_fetch(true);
+        config_data.setClass_queries(true);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        Parameter ids = mapper.paths.get("/students").getGet().getParameters().stream()
+                .filter(parameter -> parameter.getName().equals("ids")).findFirst().orElseThrow();
+        Assertions.assertEquals("array", ids.getSchema().getType());
+        Assertions.assertEquals(Parameter.StyleEnum.FORM, ids.getStyle());
+        Assertions.assertFalse(ids.getExplode());
+        Assertions.assertEquals("get_resources", mapper.paths.get("/students").getGet().getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+
+        String query = Files.readString(dir.resolve("queries").resolve(Mapper.DEFAULT_DIR_QUERY).resolve("get_batch.rq"));
+        Assertions.assertTrue(query.contains("VALUES ?item { ?_resource_iris }"));
+        String classQuery = Files.readString(dir.resolve("queries").resolve("Student").resolve("get_batch_user.rq"));
+        Assertions.assertTrue(classQuery.contains("?item a <https://w3id.org/example#Student> ."));
+        Assertions.assertTrue(classQuery.contains("<https://w3id.org/example#hasCourse>"));
+    }
+
+    @Test
+    public void testExpandReferences() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setExpand_references(true);
+        config_data.setExpand_depth(2);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        for (String path : List.of("/students", "/students/{id}")) {
+            Parameter expand = mapper.paths.get(path).getGet().getParameters().stream()
+                    .filter(parameter -> parameter.getName().equals("expand")).findFirst().orElseThrow();
+            List<?> values = expand.getSchema().getItems().getEnum();
+            Assertions.assertTrue(values.contains("hasCourse"));
+            //Data properties cannot be expanded
+            Assertions.assertFalse(values.contains("name"));
+            Assertions.assertNotNull(mapper.paths.get(path).getGet().getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+        }
+
+        String query = Files.readString(dir.resolve("queries").resolve(Mapper.DEFAULT_DIR_QUERY).resolve("get_one_expand_user.rq"));
+        Assertions.assertTrue(query.contains("VALUES ?predicate { ?_expand_iris }"));
+        Assertions.assertTrue(query.contains("?prop1 ?predicate2 ?prop2"));
+        Assertions.assertFalse(query.contains("?predicate3"));
+        Assertions.assertTrue(query.contains("GRAPH ?_g_iri"));
+        Assertions.assertTrue(Files.exists(dir.resolve("queries").resolve(Mapper.DEFAULT_DIR_QUERY).resolve("get_all_expand.rq")));
+        Assertions.assertFalse(Files.exists(dir.resolve("queries").resolve(Mapper.DEFAULT_DIR_QUERY).resolve("get_all_search_expand.rq")));
+    }
+
+    @Test
+    public void testPropertyFilters() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setProperty_filters(true);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        List<Parameter> parameters = mapper.paths.get("/students").getGet().getParameters();
+        List<String> names = parameters.stream().map(Parameter::getName).collect(Collectors.toList());
+        Assertions.assertTrue(names.containsAll(List.of("name", "name_in", "birthDate_gt", "birthDate_lt")));
+        //Dates are only filtered by ranges, and object properties are not filtered
+        Assertions.assertFalse(names.contains("birthDate"));
+        Assertions.assertFalse(names.contains("enrolledIn"));
+        Parameter birthDate = parameters.stream().filter(parameter -> parameter.getName().equals("birthDate_gt")).findFirst().orElseThrow();
+        Assertions.assertEquals("date-time", birthDate.getSchema().getFormat());
+        Parameter nameIn = parameters.stream().filter(parameter -> parameter.getName().equals("name_in")).findFirst().orElseThrow();
+        Assertions.assertEquals("string", nameIn.getSchema().getItems().getType());
+        Assertions.assertEquals("get_resources", mapper.paths.get("/students").getGet().getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+        //The singular path is not filtered
+        Assertions.assertTrue(mapper.paths.get("/students/{id}").getGet().getParameters().stream()
+                .noneMatch(parameter -> parameter.getName().equals("name")));
+
+        String query = Files.readString(dir.resolve("queries").resolve("Student").resolve("get_all.rq"));
+        //A filter that is not in the request is not bound, and does not filter anything
+        Assertions.assertTrue(query.contains("FILTER(!BOUND(?_birthDate_gt) || EXISTS { ?item <https://w3id.org/example#birthDate> ?value"
+                + " FILTER(?value > <http://www.w3.org/2001/XMLSchema#dateTime>(?_birthDate_gt)) })"));
+        Assertions.assertTrue(query.contains("FILTER(!BOUND(?_name_in) || EXISTS {"));
+        Assertions.assertEquals(query.split("FILTER\\(!BOUND").length - 1, query.split("EXISTS").length - 1);
+        //The filters are applied before the pagination
+        Assertions.assertTrue(query.indexOf("?_name_in") < query.indexOf("LIMIT"));
+        String one = Files.readString(dir.resolve("queries").resolve("Student").resolve("get_one.rq"));
+        Assertions.assertFalse(one.contains("EXISTS"));
+    }
+
+    @Test
+    public void testTotalCount() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setTotal_count(true);
+        config_data.setProperty_filters(true);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        Assertions.assertNotNull(mapper.paths.get("/students").getGet().getResponses().get("200")
+                .getHeaders().get(MapperOperation.TOTAL_COUNT_HEADER));
+        Operation count = mapper.paths.get("/students/count").getGet();
+        Assertions.assertEquals("integer", count.getResponses().get("200").getContent().get("application/json").getSchema().getType());
+        Assertions.assertNotNull(count.getResponses().get("200").getHeaders().get(MapperOperation.TOTAL_COUNT_HEADER));
+        Assertions.assertEquals("count_resources", count.getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+        Assertions.assertEquals("get_resources", mapper.paths.get("/students").getGet().getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+        List<String> names = count.getParameters().stream().map(Parameter::getName).collect(Collectors.toList());
+        //The same filters as the list, without pagination
+        Assertions.assertTrue(names.containsAll(List.of("label", "name", "birthDate_gt")));
+        Assertions.assertFalse(names.contains("page"));
+        Assertions.assertFalse(names.contains("per_page"));
+
+        Path queries = dir.resolve("queries");
+        Assertions.assertTrue(Files.readString(queries.resolve(Mapper.DEFAULT_DIR_QUERY).resolve("get_all_count_user.rq")).contains("GRAPH ?_g_iri"));
+        String query = Files.readString(queries.resolve("Student").resolve("get_all_count.rq"));
+        Assertions.assertTrue(query.contains("SELECT (COUNT(DISTINCT ?item) AS ?count)"));
+        Assertions.assertTrue(query.contains("?item a <https://w3id.org/example#Student> ."));
+        Assertions.assertTrue(query.contains("FILTER(!BOUND(?_name_in) || EXISTS {"));
+    }
+
+    @Test
+    public void testExportPaths() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setExport_paths(true);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        Operation export = mapper.paths.get("/students/export").getGet();
+        Content content = export.getResponses().get("200").getContent();
+        Assertions.assertEquals("#/components/schemas/Student", content.get(MapperOperation.NDJSON_MEDIA_TYPE).getSchema().get$ref());
+        Assertions.assertNotNull(content.get(MapperOperation.N_TRIPLES_MEDIA_TYPE));
+        Assertions.assertEquals("export_resources", export.getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+        List<String> names = export.getParameters().stream().map(Parameter::getName).collect(Collectors.toList());
+        Assertions.assertTrue(names.contains("label"));
+        Assertions.assertFalse(names.contains("page"));
+        Assertions.assertFalse(names.contains("per_page"));
+
+        String query = Files.readString(dir.resolve("queries").resolve(Mapper.DEFAULT_DIR_QUERY).resolve("get_all_export_user.rq"));
+        Assertions.assertTrue(query.contains("GRAPH ?_g_iri"));
+        Assertions.assertFalse(query.contains("LIMIT"));
+        Assertions.assertFalse(query.contains("OFFSET"));
+    }
+
+    @Test
+    public void testPatchPaths() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setEnable_patch_paths(true);
+        config_data.setRequired_properties_from_cardinality(true);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        Operation patch = mapper.paths.get("/students/{id}").getPatch();
+        Assertions.assertNotNull(patch);
+        Assertions.assertNotNull(patch.getResponses().get("404"));
+        Assertions.assertEquals("patch_resource", patch.getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+        //The body can have any subset of the properties, even if the schema has required properties
+        Assertions.assertFalse(((Schema) mapper.schemas.get("Student")).getRequired().isEmpty());
+        Schema body = patch.getRequestBody().getContent().get("application/json").getSchema();
+        Assertions.assertNull(body.getRequired());
+        Assertions.assertTrue(body.getProperties().containsKey("name"));
+        Assertions.assertNotSame(((Schema) mapper.schemas.get("Student")).getProperties(), body.getProperties());
+        //The instances are only created in the plural path, the singular path updates them
+        Assertions.assertEquals("Update an existing Student", mapper.paths.get("/students/{id}").getPut().getSummary());
+        Assertions.assertNull(mapper.paths.get("/students/{id}").getPost());
+        Assertions.assertNotNull(mapper.paths.get("/students").getPost());
+
+        String query = Files.readString(dir.resolve("queries").resolve(Mapper.DEFAULT_DIR_QUERY).resolve("patch_user.rq"));
+        Assertions.assertTrue(query.contains("VALUES ?predicate { ?_predicate_iris }"));
+        Assertions.assertTrue(query.contains("DELETE {"));
+        Assertions.assertTrue(query.contains("INSERT {"));
+    }
+
+    @Test
+    public void testBulkCreate() throws Exception{
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setBulk_create(true);
+        config_data.setBulk_chunk_size(250);
+        config_data.setClass_queries(true);
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        Operation bulk = mapper.paths.get("/students/bulk").getPost();
+        Schema body = bulk.getRequestBody().getContent().get("application/json").getSchema();
+        Assertions.assertEquals("array", body.getType());
+        Assertions.assertEquals("#/components/schemas/Student", body.getItems().get$ref());
+        Assertions.assertNotNull(bulk.getResponses().get("201"));
+        Assertions.assertEquals("post_resources", bulk.getExtensions().get(MapperOperation.OPERATION_EXTENSION));
+        //The single creation is not changed
+        Schema single = mapper.paths.get("/students").getPost().getRequestBody().getContent().get("application/json").getSchema();
+        Assertions.assertEquals("#/components/schemas/Student", single.get$ref());
+
+        for (String directory : List.of(Mapper.DEFAULT_DIR_QUERY, "Student")) {
+            String query = Files.readString(dir.resolve("queries").resolve(directory).resolve("post_bulk_user.rq"));
+            Assertions.assertTrue(query.contains("#+ chunk_size: 250"));
+            Assertions.assertTrue(query.contains("INSERT DATA"));
+            Assertions.assertTrue(query.contains("GRAPH ?_g_iri"));
+        }
+    }
+
     /**
      * Test an ontology (very simple, two classes) with a missing import
      */
@@ -92,6 +382,69 @@ public class MapperTest {
         Assertions.assertEquals(false, mapper.ontologies.isEmpty());
     }
 
+    /**
+     * The parallel mapping must produce the same schemas, paths and openapi.yaml as the serial one.
+     */
+    @Test
+    public void testParallelMapping() throws Exception{
+        String example_remote = "examples/modelcatalog/config.yaml";
+        YamlConfig config_data = get_yaml_data(example_remote);
+        config_data.setAuth(new AuthConfig());
+        Mapper serialMapper = createSchemas(config_data, Files.createTempDirectory("oba"));
+
+        config_data = get_yaml_data(example_remote);
+        config_data.setAuth(new AuthConfig());
+        config_data.setThreads(4);
+        Mapper parallelMapper = createSchemas(config_data, Files.createTempDirectory("oba"));
+
+        Assertions.assertEquals(serialMapper.schemas, parallelMapper.schemas);
+        Assertions.assertEquals(serialMapper.paths, parallelMapper.paths);
+
+        Path serial_dir = Files.createTempDirectory("oba");
+        Path parallel_dir = Files.createTempDirectory("oba");
+        new Serializer(serialMapper, serial_dir, get_yaml_data(example_remote).getOpenapi(), null);
+        new Serializer(parallelMapper, parallel_dir, get_yaml_data(example_remote).getOpenapi(), null);
+        Assertions.assertArrayEquals(Files.readAllBytes(serial_dir.resolve("openapi.yaml")), Files.readAllBytes(parallel_dir.resolve("openapi.yaml")));
+    }
+
+    /**
+     * follow_references_depth and follow_references_limit bound the classes added by following references,
+     * but not the paths of the selected classes.
+     */
+    @Test
+    public void testFollowReferencesLimits() throws Exception{
+        Mapper mapper = createSchemas(getRestrictionsConfig(), Files.createTempDirectory("oba"));
+
+        YamlConfig config_data = getRestrictionsConfig();
+        config_data.setFollow_references_depth(0);
+        Mapper depthMapper = createSchemas(config_data, Files.createTempDirectory("oba"));
+
+        config_data = getRestrictionsConfig();
+        config_data.setFollow_references_limit(2);
+        Mapper limitMapper = createSchemas(config_data, Files.createTempDirectory("oba"));
+
+        Assertions.assertFalse(mapper.mappedClasses.isEmpty());
+        Assertions.assertTrue(depthMapper.mappedClasses.isEmpty());
+        Assertions.assertEquals(2, limitMapper.mappedClasses.size());
+        Assertions.assertEquals(mapper.paths, depthMapper.paths);
+        Assertions.assertEquals(mapper.paths, limitMapper.paths);
+    }
+
+    /**
+     * The depth of a class is the length of the shortest path of references that reaches it, whichever
+     * selected class is mapped first: Reader -> Book -> Author is within the depth, Library -> Shelf -> Book -> Author is not.
+     */
+    @Test
+    public void testFollowReferencesShortestPath() throws Exception{
+        YamlConfig config_data = get_yaml_data("src/test/resources/reference_depth/config.yaml");
+        config_data.setAuth(new AuthConfig());
+        Path dir = Files.createTempDirectory("oba");
+        Mapper mapper = createSchemas(config_data, dir);
+
+        Assertions.assertEquals(Set.of("Library", "Reader", "Shelf", "Book", "Author"), mapper.schemas.keySet());
+        Assertions.assertEquals(3, mapper.mappedClasses.size());
+    }
+
     /**
      * Test an ontology (very simple, two classes) with a missing import
      */
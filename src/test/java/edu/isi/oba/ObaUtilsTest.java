@@ -103,4 +103,20 @@ public class ObaUtilsTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void generate_context_file() throws OWLOntologyCreationException {
+        String[] ontologies = new String[]{"examples/restrictions/example.owl"};
+        JSONObject context = (JSONObject) ObaUtils.generate_context_file(ontologies, false).get("@context");
+        Assertions.assertEquals("@id", context.get("id"));
+        Assertions.assertEquals("@type", context.get("type"));
+        Assertions.assertEquals("https://w3id.org/example#Student", context.getJSONObject("Student").get("@id"));
+        Assertions.assertEquals("@id", context.getJSONObject("hasCourse").get("@type"));
+        Assertions.assertEquals("@set", context.getJSONObject("hasCourse").get("@container"));
+        Assertions.assertEquals("http://www.w3.org/2001/XMLSchema#string", context.getJSONObject("address").get("@type"));
+
+        JSONObject class_context = (JSONObject) ObaUtils.generate_context_file(ontologies, true).get("@context");
+        Assertions.assertEquals("@id", class_context.get("id"));
+        Assertions.assertTrue(class_context.has("Student"));
+        Assertions.assertFalse(class_context.has("hasCourse"));
+    }
+}
@@ -0,0 +1,142 @@
+package edu.isi.oba;
+
+import static edu.isi.oba.ObaUtils.get_yaml_data;
+import edu.isi.oba.config.YamlConfig;
+
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.search.EntitySearcher;
+
+public class OntologyIndexTest {
+
+    /**
+     * The domain axioms of a class must include the ones declared for its super classes.
+     */
+    @Test
+    public void testObjectPropertyDomainsIncludeSuperClasses() throws Exception {
+        YamlConfig config_data = get_yaml_data("examples/restrictions/config.yaml");
+        Mapper mapper = new Mapper(config_data);
+        OWLDataFactory dataFactory = mapper.manager.getOWLDataFactory();
+        OWLClass student = dataFactory.getOWLClass("https://w3id.org/example#Student");
+        OWLClass person = dataFactory.getOWLClass("https://w3id.org/example#Person");
+
+        OWLOntology ontology = mapper.ontologies.get(0);
+
+        Set<String> studentProperties = getPropertyNames(mapper.index.getObjectPropertyDomainAxioms(student, ontology));
+        Set<String> personProperties = getPropertyNames(mapper.index.getObjectPropertyDomainAxioms(person, ontology));
+
+        Assertions.assertTrue(studentProperties.containsAll(Set.of("enrolledIn", "hasRecord", "hasDegree")));
+        Assertions.assertTrue(studentProperties.containsAll(personProperties));
+        Assertions.assertFalse(personProperties.contains("enrolledIn"));
+    }
+
+    @Test
+    public void testClassHierarchy() throws Exception {
+        YamlConfig config_data = get_yaml_data("examples/restrictions/config.yaml");
+        Mapper mapper = new Mapper(config_data);
+        OWLDataFactory dataFactory = mapper.manager.getOWLDataFactory();
+        OWLClass student = dataFactory.getOWLClass("https://w3id.org/example#Student");
+        OWLClass person = dataFactory.getOWLClass("https://w3id.org/example#Person");
+        ClassHierarchy hierarchy = mapper.index.getHierarchy(mapper.ontologies.get(0));
+
+        Assertions.assertTrue(hierarchy.isSubClassOf(student, person));
+        Assertions.assertTrue(hierarchy.isSubClassOf(student, dataFactory.getOWLThing()));
+        Assertions.assertFalse(hierarchy.isSubClassOf(person, student));
+        Assertions.assertFalse(hierarchy.isSubClassOf(student, student));
+        Assertions.assertTrue(hierarchy.getSuperClasses(student).contains(person));
+    }
+
+    /**
+     * The super classes of a class are the ones of its ontology and its imports, as with the structural reasoner:
+     * a super class declared in an imported ontology adds its domain properties, and one declared in an ontology
+     * that is not imported does not.
+     */
+    @Test
+    public void testImportedSuperClasses() throws Exception {
+        YamlConfig config_data = get_yaml_data("src/test/resources/imported_hierarchy/config.yaml");
+        config_data.setOutput_dir(Files.createTempDirectory("oba").toString());
+        Mapper mapper = new Mapper(config_data);
+        OWLDataFactory dataFactory = mapper.manager.getOWLDataFactory();
+        OWLClass agent = dataFactory.getOWLClass("https://example.org/agents#Agent");
+        OWLClass person = dataFactory.getOWLClass("https://example.org/people#Person");
+        OWLClass robot = dataFactory.getOWLClass("https://example.org/robots#Robot");
+        OWLOntology people = getOntology(mapper, "https://example.org/people");
+        OWLOntology robots = getOntology(mapper, "https://example.org/robots");
+
+        Assertions.assertTrue(mapper.index.getHierarchy(people).isSubClassOf(person, agent));
+        Assertions.assertFalse(mapper.index.getHierarchy(robots).isSubClassOf(robot, agent));
+        Assertions.assertEquals(1, mapper.index.getDataPropertyDomainAxioms(person, people).size());
+        Assertions.assertTrue(mapper.index.getDataPropertyDomainAxioms(robot, robots).isEmpty());
+    }
+
+    /**
+     * The indexed descriptions must be the same as the ones found by ObaUtils.getDescription.
+     */
+    @Test
+    public void testDescriptions() throws Exception {
+        YamlConfig config_data = get_yaml_data("examples/modelcatalog/config.yaml");
+        Mapper mapper = new Mapper(config_data);
+
+        for (OWLOntology ontology : mapper.ontologies) {
+            for (OWLEntity entity : ontology.getSignature()) {
+                Assertions.assertEquals(ObaUtils.getDescription(entity, ontology, true), mapper.index.getDescription(entity, ontology, true));
+                Assertions.assertEquals(ObaUtils.getDescription(entity, ontology, false), mapper.index.getDescription(entity, ontology, false));
+            }
+        }
+    }
+
+    /**
+     * The functional properties and range axioms must be the same as the ones found in the ontologies.
+     */
+    @Test
+    public void testFunctionalPropertiesAndRanges() throws Exception {
+        YamlConfig config_data = get_yaml_data("examples/modelcatalog/config.yaml");
+        Mapper mapper = new Mapper(config_data);
+
+        for (OWLOntology ontology : mapper.ontologies) {
+            for (OWLDataProperty property : ontology.getDataPropertiesInSignature()) {
+                Assertions.assertEquals(EntitySearcher.isFunctional(property, mapper.ontologies.stream()), mapper.index.isFunctional(property));
+                Set<OWLDataPropertyRangeAxiom> ranges = new HashSet<>();
+                mapper.ontologies.forEach(o -> ranges.addAll(o.getDataPropertyRangeAxioms(property)));
+                Assertions.assertEquals(ranges, mapper.index.getDataPropertyRangeAxioms(property));
+            }
+
+            for (OWLObjectProperty property : ontology.getObjectPropertiesInSignature()) {
+                Assertions.assertEquals(EntitySearcher.isFunctional(property, mapper.ontologies.stream()), mapper.index.isFunctional(property));
+                Set<OWLObjectPropertyRangeAxiom> ranges = new HashSet<>();
+                mapper.ontologies.forEach(o -> ranges.addAll(o.getObjectPropertyRangeAxioms(property)));
+                Assertions.assertEquals(ranges, mapper.index.getObjectPropertyRangeAxioms(property));
+            }
+        }
+    }
+
+    private OWLOntology getOntology(Mapper mapper, String iri) {
+        return mapper.ontologies.stream()
+                .filter(ontology -> ontology.getOntologyID().getOntologyIRI().map(IRI::toString).orElse("").equals(iri))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Set<String> getPropertyNames(Set<OWLObjectPropertyDomainAxiom> axioms) {
+        return axioms.stream()
+                .flatMap(axiom -> axiom.getObjectPropertiesInSignature().stream())
+                .map(property -> property.getIRI().getShortForm())
+                .collect(Collectors.toSet());
+    }
+}
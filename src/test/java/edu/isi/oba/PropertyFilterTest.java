@@ -0,0 +1,74 @@
+package edu.isi.oba;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.swagger.v3.oas.models.media.BooleanSchema;
+import io.swagger.v3.oas.models.media.DateTimeSchema;
+import io.swagger.v3.oas.models.media.NumberSchema;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import org.semanticweb.owlapi.model.IRI;
+
+public class PropertyFilterTest {
+    private static final String PREFIX = "https://w3id.org/example#";
+
+    private static List<String> getParameterNames(PropertyFilter filter) {
+        return filter.getParameters().stream().map(Parameter::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * The query parameters and the query variables use the same name, without the characters not allowed in a variable.
+     */
+    @Test
+    public void testSanitizedNames() {
+        PropertyFilter filter = PropertyFilter.of("birth-date", IRI.create(PREFIX + "birth-date"), new DateTimeSchema());
+        Assertions.assertEquals(List.of("birth_date_gt", "birth_date_lt"), getParameterNames(filter));
+        String pattern = filter.getPattern("?item", "");
+        Assertions.assertTrue(pattern.contains("FILTER(!BOUND(?_birth_date_gt) || EXISTS { ?item <" + PREFIX + "birth-date> ?value"));
+        Assertions.assertTrue(pattern.contains("?value < <http://www.w3.org/2001/XMLSchema#dateTime>(?_birth_date_lt)"));
+    }
+
+    /**
+     * A filter with the name of another parameter of the operations is not generated, neither in the query.
+     */
+    @Test
+    public void testReservedNames() {
+        PropertyFilter filter = PropertyFilter.of("page", IRI.create(PREFIX + "page"), new StringSchema());
+        Assertions.assertEquals(List.of("page_in"), getParameterNames(filter));
+        Assertions.assertFalse(filter.getPattern("?item", "").contains("?_page)"));
+
+        filter = PropertyFilter.of("per-page", IRI.create(PREFIX + "per-page"), new StringSchema());
+        Assertions.assertEquals(List.of("per_page_in"), getParameterNames(filter));
+
+        Assertions.assertNull(PropertyFilter.of("ids", IRI.create(PREFIX + "ids"), new BooleanSchema()));
+    }
+
+    /**
+     * The filters of a property whose parameters have the names of the ones of a previous property are not generated.
+     */
+    @Test
+    public void testCollisions() {
+        PropertyFilter birthDate = PropertyFilter.of("birth-date", IRI.create(PREFIX + "birth-date"), new DateTimeSchema());
+        PropertyFilter birth_date = PropertyFilter.of("birth_date", IRI.create(PREFIX + "birth_date"), new DateTimeSchema());
+        PropertyFilter age = PropertyFilter.of("age", IRI.create(PREFIX + "age"), new NumberSchema());
+        PropertyFilter age_gt = PropertyFilter.of("age_gt", IRI.create(PREFIX + "age_gt"), new StringSchema());
+        PropertyFilter name = PropertyFilter.of("name", IRI.create(PREFIX + "name"), new StringSchema());
+
+        Assertions.assertEquals(List.of(age, birthDate, name), PropertyFilter.withoutCollisions(List.of(age, age_gt, birthDate, birth_date, name)));
+    }
+
+    @Test
+    public void testNumberRanges() {
+        PropertyFilter filter = PropertyFilter.of("weight", IRI.create(PREFIX + "weight"), new NumberSchema());
+        Assertions.assertEquals(List.of("weight_gt", "weight_lt", "weight_in"), getParameterNames(filter));
+        String pattern = filter.getPattern("?item", "    ");
+        Assertions.assertTrue(pattern.contains("?value > <http://www.w3.org/2001/XMLSchema#double>(?_weight_gt)"));
+        Assertions.assertTrue(pattern.contains("CONTAINS(CONCAT(\",\", STR(?_weight_in), \",\"), CONCAT(\",\", STR(?value), \",\"))"));
+        Assertions.assertEquals(3, pattern.split("\n").length);
+    }
+}
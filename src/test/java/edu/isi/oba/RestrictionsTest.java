@@ -19,8 +19,14 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
 
 import io.swagger.v3.oas.models.media.ArraySchema;
 import io.swagger.v3.oas.models.media.ComposedSchema;
@@ -817,4 +823,77 @@ public class RestrictionsTest {
 			Assertions.fail("Error in ontology creation: ", e);
 		}
 	}
+
+	/**
+	 * Restrictions inherited through a long chain of super classes must be found without overflowing the stack.
+	 */
+	@Test
+	public void testDeepInheritedRestrictions() throws Exception {
+		this.initializeLogger();
+		edu.isi.oba.Oba.logger.setLevel(Level.WARNING);
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLDataFactory dataFactory = manager.getOWLDataFactory();
+		OWLOntology ontology = manager.createOntology();
+		String prefix = "https://w3id.org/example#";
+		OWLObjectProperty property = dataFactory.getOWLObjectProperty(prefix + "hasPart");
+		OWLClass root = dataFactory.getOWLClass(prefix + "C0");
+		manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(root,
+				dataFactory.getOWLObjectSomeValuesFrom(property, dataFactory.getOWLClass(prefix + "Part"))));
+
+		OWLClass cls = root;
+		for (int i = 1; i <= 20000; i++) {
+			OWLClass subClass = dataFactory.getOWLClass(prefix + "C" + i);
+			manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(subClass, cls));
+			cls = subClass;
+		}
+
+		Map<OWLClass, RestrictionVisitor> summaries = new HashMap<>();
+		RestrictionVisitor visitor = new RestrictionVisitor(cls, List.of(ontology), dataFactory.getOWLThing(), "", summaries);
+		for (OWLSubClassOfAxiom ax: ontology.getSubClassAxiomsForSubClass(cls)) {
+			ax.getSuperClass().accept(visitor);
+		}
+
+		Assertions.assertTrue(visitor.getPropertiesFromObjectRestrictions().contains(property));
+		Assertions.assertEquals(List.of("Part"), visitor.getPropertiesFromObjectRestrictions_ranges().get("hasPart"));
+		Assertions.assertEquals(20000, summaries.size());
+	}
+
+	/**
+	 * The ranges of a property restricted by a class and by its super classes are added, not replaced.
+	 */
+	@Test
+	public void testInheritedRestrictionsOfTheSameProperty() throws Exception {
+		this.initializeLogger();
+		edu.isi.oba.Oba.logger.setLevel(Level.WARNING);
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLDataFactory dataFactory = manager.getOWLDataFactory();
+		OWLOntology ontology = manager.createOntology();
+		String prefix = "https://w3id.org/example#";
+		OWLObjectProperty property = dataFactory.getOWLObjectProperty(prefix + "hasPart");
+		OWLClass superClass = dataFactory.getOWLClass(prefix + "S");
+		OWLClass cls = dataFactory.getOWLClass(prefix + "C");
+		OWLClass other = dataFactory.getOWLClass(prefix + "D");
+		OWLClass diamond = dataFactory.getOWLClass(prefix + "T");
+		manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(superClass,
+				dataFactory.getOWLObjectSomeValuesFrom(property, dataFactory.getOWLClass(prefix + "B"))));
+		manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(cls,
+				dataFactory.getOWLObjectSomeValuesFrom(property, dataFactory.getOWLClass(prefix + "A"))));
+		manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(cls, superClass));
+		//T reaches S through C and D
+		manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(other, superClass));
+		manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(diamond, cls));
+		manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(diamond, other));
+
+		Map<OWLClass, RestrictionVisitor> summaries = new HashMap<>();
+		for (OWLClass visited: List.of(cls, diamond)) {
+			RestrictionVisitor visitor = new RestrictionVisitor(visited, List.of(ontology), dataFactory.getOWLThing(), "", summaries);
+			for (OWLSubClassOfAxiom ax: ontology.getSubClassAxiomsForSubClass(visited)) {
+				ax.getSuperClass().accept(visitor);
+			}
+
+			List<String> ranges = visitor.getPropertiesFromObjectRestrictions_ranges().get("hasPart");
+			Assertions.assertEquals(2, ranges.size());
+			Assertions.assertTrue(ranges.containsAll(List.of("A", "B")));
+		}
+	}
 }
@@ -0,0 +1,79 @@
+package edu.isi.oba;
+
+import static edu.isi.oba.ObaUtils.get_yaml_data;
+import edu.isi.oba.config.AuthConfig;
+import edu.isi.oba.config.ValidationMode;
+import edu.isi.oba.config.YamlConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ObjectSchema;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SchemaInternerTest {
+
+    @Test
+    public void testIdenticalPropertiesAreShared() {
+        Map<String, Schema> schemas = new TreeMap<>();
+        schemas.put("Person", new ObjectSchema()
+                .addProperty("label", new StringSchema().description("label"))
+                .addProperty("knows", new ArraySchema().items(new Schema().$ref("Person"))));
+        schemas.put("Student", new ObjectSchema()
+                .addProperty("label", new StringSchema().description("label"))
+                .addProperty("knows", new ArraySchema().items(new Schema().$ref("Person")).maxItems(1)));
+        schemas.put("LabelProperty", new ObjectSchema());
+
+        SchemaInterner interner = new SchemaInterner();
+        List<String> shared = interner.intern(schemas);
+
+        //the name of the class is not reused, and the different "knows" schemas are kept
+        Assertions.assertEquals(List.of("LabelProperty2"), shared);
+        Assertions.assertEquals(2, interner.getInternedProperties());
+        Assertions.assertEquals("#/components/schemas/LabelProperty2", ((Schema) schemas.get("Person").getProperties().get("label")).get$ref());
+        Assertions.assertEquals("#/components/schemas/LabelProperty2", ((Schema) schemas.get("Student").getProperties().get("label")).get$ref());
+        Assertions.assertEquals("label", schemas.get("LabelProperty2").getDescription());
+        Assertions.assertNull(((Schema) schemas.get("Person").getProperties().get("knows")).get$ref());
+    }
+
+    /**
+     * The interned specification must be smaller and still valid.
+     */
+    @Test
+    public void testInternedSpecification() throws Exception {
+        InputStream stream = Oba.class.getClassLoader().getResourceAsStream("logging.properties");
+        try {
+            LogManager.getLogManager().readConfiguration(stream);
+            edu.isi.oba.Oba.logger = Logger.getLogger(Oba.class.getName());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        String example = "examples/restrictions/config.yaml";
+        YamlConfig config_data = get_yaml_data(example);
+        String destination_dir = config_data.getOutput_dir() + File.separator + config_data.getName();
+        config_data.setAuth(new AuthConfig());
+        config_data.setIntern_schemas(true);
+        Mapper mapper = new Mapper(config_data);
+        mapper.createSchemas(destination_dir);
+        int schemas = mapper.schemas.size();
+
+        OpenAPI openAPI = new Serializer(mapper, Files.createTempDirectory("oba"), config_data.getOpenapi(), null, false, ValidationMode.FULL).openAPI;
+
+        Assertions.assertTrue(openAPI.getComponents().getSchemas().size() > schemas);
+        Assertions.assertTrue(openAPI.getComponents().getSchemas().containsKey("IdProperty"));
+        Assertions.assertEquals(0, new SpecValidator(openAPI, mapper.getMappedSchemaNames()).getErrors().size());
+    }
+}
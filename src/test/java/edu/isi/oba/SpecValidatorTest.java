@@ -0,0 +1,88 @@
+package edu.isi.oba;
+
+import static edu.isi.oba.ObaUtils.get_yaml_data;
+import edu.isi.oba.config.AuthConfig;
+import edu.isi.oba.config.ValidationMode;
+import edu.isi.oba.config.YamlConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.Schema;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.semanticweb.owlapi.model.IRI;
+
+public class SpecValidatorTest {
+    private Mapper mapper;
+    private OpenAPI openAPI;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        InputStream stream = Oba.class.getClassLoader().getResourceAsStream("logging.properties");
+        try {
+            LogManager.getLogManager().readConfiguration(stream);
+            edu.isi.oba.Oba.logger = Logger.getLogger(Oba.class.getName());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        String example = "examples/restrictions/config.yaml";
+        YamlConfig config_data = get_yaml_data(example);
+        String destination_dir = config_data.getOutput_dir() + File.separator + config_data.getName();
+        config_data.setAuth(new AuthConfig());
+        this.mapper = new Mapper(config_data);
+        this.mapper.createSchemas(destination_dir);
+        this.openAPI = new Serializer(this.mapper, Files.createTempDirectory("oba"), config_data.getOpenapi(), null, false, ValidationMode.OFF).openAPI;
+    }
+
+    @Test
+    public void testValidSpecification() {
+        SpecValidator validator = new SpecValidator(this.openAPI, this.mapper.getMappedSchemaNames());
+        Assertions.assertEquals(0, validator.getErrors().size(), validator.getErrors().toString());
+    }
+
+    @Test
+    public void testMissingReference() {
+        this.openAPI.getComponents().getSchemas().get("Student").addProperty("missing", new Schema().$ref("Missing"));
+        SpecValidator validator = new SpecValidator(this.openAPI, this.mapper.getMappedSchemaNames());
+        Assertions.assertEquals(1, validator.getErrors().size());
+        Assertions.assertTrue(validator.getErrors().get(0).contains("#/components/schemas/Missing"));
+        Assertions.assertThrows(Exception.class, validator::validate);
+    }
+
+    @Test
+    public void testDuplicateOperationId() {
+        this.openAPI.getPaths().get("/students").getGet().setOperationId("get");
+        this.openAPI.getPaths().get("/persons").getGet().setOperationId("get");
+        SpecValidator validator = new SpecValidator(this.openAPI, this.mapper.getMappedSchemaNames());
+        Assertions.assertEquals(1, validator.getErrors().size());
+        Assertions.assertTrue(validator.getErrors().get(0).startsWith("operationId get is repeated"));
+    }
+
+    @Test
+    public void testRequiredFields() {
+        this.openAPI.getInfo().setTitle(null);
+        this.openAPI.getPaths().get("/students").getGet().setResponses(null);
+        SpecValidator validator = new SpecValidator(this.openAPI, this.mapper.getMappedSchemaNames());
+        Assertions.assertTrue(validator.getErrors().contains("attribute info.title is missing"));
+        Assertions.assertTrue(validator.getErrors().contains("attribute paths./students.get.responses is missing"));
+    }
+
+    @Test
+    public void testSchemaNameCollision() {
+        Map<IRI, String> names = this.mapper.getMappedSchemaNames();
+        names.put(IRI.create("https://w3id.org/other#Student"), "Student");
+        SpecValidator validator = new SpecValidator(this.openAPI, names);
+        Assertions.assertEquals(1, validator.getErrors().size());
+        Assertions.assertTrue(validator.getErrors().get(0).contains("same schema name Student"));
+    }
+}